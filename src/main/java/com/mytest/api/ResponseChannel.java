@@ -0,0 +1,91 @@
+package com.mytest.api;
+
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpServerResponse;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kanál NIO, který zapisuje data do odpovědi HTTP.
+ * Kanál je určen pro použití z pracovního vlákna. Pokud je fronta zápisu odpovědi plná,
+ * zápis čeká, dokud klient data nepřevezme, takže se v paměti nehromadí celý export.
+ * Hlavičky odpovědi a chunked přenos se nastaví až při prvním zápisu, takže odpověď,
+ * do které se nic nezapsalo, lze ukončit s libovolným stavem.
+ */
+class ResponseChannel implements WritableByteChannel {
+    private static final long DRAIN_TIMEOUT = 60000;
+    private final HttpServerResponse response;
+    private final Handler<HttpServerResponse> headersHandler;
+    private boolean started = false;
+    private volatile boolean open = true;
+    private volatile boolean clientClosed = false;
+    private volatile CountDownLatch drained;
+
+    /**
+     * Konstruktor třídy ResponseChannel.
+     * @param response - odpověď HTTP
+     * @param headersHandler - handler, který nastaví hlavičky odpovědi před prvním zápisem
+     */
+    ResponseChannel(HttpServerResponse response, Handler<HttpServerResponse> headersHandler) {
+        this.response = response;
+        this.headersHandler = headersHandler;
+        response.closeHandler(v -> {
+            clientClosed = true;
+            CountDownLatch latch = drained;
+            if (latch != null) {
+                latch.countDown();
+            }
+        });
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        if (!open || clientClosed) {
+            throw new IOException("Spojení s klientem bylo ukončeno.");
+        }
+        if (!started) {
+            started = true;
+            headersHandler.handle(response.setChunked(true));
+        }
+        awaitDrain();
+        int length = src.remaining();
+        byte[] bytes = new byte[length];
+        src.get(bytes);
+        response.write(Buffer.buffer(bytes));
+        return length;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() {
+        open = false;
+    }
+
+    private void awaitDrain() throws IOException {
+        while (response.writeQueueFull()) {
+            CountDownLatch latch = new CountDownLatch(1);
+            drained = latch;
+            response.drainHandler(v -> latch.countDown());
+            if (!response.writeQueueFull()) {
+                break;
+            }
+            try {
+                if (!latch.await(DRAIN_TIMEOUT, TimeUnit.MILLISECONDS) || clientClosed) {
+                    throw new IOException("Klient nepřevzal data v časovém limitu.");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Čekání na odeslání dat bylo přerušeno.", e);
+            }
+        }
+    }
+}
@@ -1,16 +1,27 @@
 package com.mytest.api;
 
 import com.mytest.db.DbService;
+import com.mytest.db.StatementExporter;
+import com.mytest.db.TransactionSearchIndex;
 import io.vertx.core.Vertx;
+import io.vertx.core.WorkerExecutor;
 import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpServerResponse;
 import io.vertx.core.json.JsonObject;
+import io.vertx.core.shareddata.LocalMap;
 import io.vertx.ext.web.Router;
 import io.vertx.ext.web.handler.BodyHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Třída RestApi představuje REST API aplikace PPF Banka.
  */
 public class RestApi {
+    private static final Logger logger = LoggerFactory.getLogger(RestApi.class);
     private final Vertx vertx;
     private static final String SETUP_ACTION = "setup";
     private static final String DROP_ACTION = "drop";
@@ -18,6 +29,14 @@ public class RestApi {
     private static final String TEST_ACTION = "test";
     private static final String DEFAULT_CHARSET = "UTF-8";
     private static final String BODY_MISSING = "Chybí tělo požadavku";
+    private static final String SESSION_HEADER = "X-Session-Id";
+    private static final String IDEMPOTENCY_HEADER = "Idempotency-Key";
+    private static final String[] SEARCH_PARAMS = {"q", "variableSymbol", "specificSymbol", "counterparty", "accountNumber"};
+    private static final int DEFAULT_SEARCH_LIMIT = 50;
+    private static final int MAX_SEARCH_LIMIT = 500;
+    private static final String EXPORT_WORKER_POOL = "statement-export";
+    private static final int EXPORT_RETRY_AFTER_SECONDS = 30;
+    private final AtomicInteger runningExports = new AtomicInteger();
 
     /**
      * Konstruktor třídy RestApi.
@@ -33,6 +52,9 @@ public class RestApi {
      */
     public Router createRouter() {
         Router router = Router.router(vertx);
+        int maxExports = maxConcurrentExports();
+        WorkerExecutor exportExecutor = vertx.createSharedWorkerExecutor(EXPORT_WORKER_POOL, maxExports,
+                exportConfig().getLong("max_execute_time_ms", TimeUnit.HOURS.toMillis(1)), TimeUnit.MILLISECONDS);
 
         router.get("/hi").handler(res -> {
             res.response()
@@ -40,6 +62,28 @@ public class RestApi {
                     .end("PPF Bank vás srdečně vítá!");
         });
 
+        router.get("/health/live").handler(res -> {
+            res.response()
+                    .putHeader(HttpHeaders.CONTENT_TYPE, "application/json; charset="+DEFAULT_CHARSET)
+                    .end(new JsonObject().put("status", "UP").encodePrettily());
+        });
+
+        router.get("/health/ready").handler(res -> {
+            LocalMap<String, Object> appState = vertx.sharedData().getLocalMap("app-state");
+            boolean ready = Boolean.TRUE.equals(appState.get("ready"));
+            JsonObject timings = (JsonObject) appState.get("startupTimings");
+            JsonObject status = new JsonObject()
+                    .put("status", ready ? "READY" : "STARTING")
+                    .put("startupTimings", timings == null ? new JsonObject() : timings);
+            if (!ready && appState.get("startupError") != null) {
+                status.put("startupError", appState.get("startupError"));
+            }
+            res.response()
+                    .setStatusCode(ready ? 200 : 503)
+                    .putHeader(HttpHeaders.CONTENT_TYPE, "application/json; charset="+DEFAULT_CHARSET)
+                    .end(status.encodePrettily());
+        });
+
         router.get("/accounts/:accountId/transactions").handler(res -> {
             String accountId = res.request().getParam("accountId");
             if(accountId == null) {
@@ -50,7 +94,7 @@ public class RestApi {
                 return;
             }
             String actionResult;
-            DbService dbService = new DbService(vertx);
+            DbService dbService = new DbService(vertx, res.request().getHeader(SESSION_HEADER));
             actionResult = dbService.getTransactionsByAccountNumber(accountId);
 
             res.response()
@@ -59,6 +103,116 @@ public class RestApi {
 
         });
 
+        router.get("/accounts/:accountId/summary").handler(res -> {
+            String accountId = res.request().getParam("accountId");
+            DbService dbService = new DbService(vertx, res.request().getHeader(SESSION_HEADER));
+            String actionResult = dbService.getTransactionsSummaryByAccountNumber(accountId);
+
+            res.response()
+                    .putHeader(HttpHeaders.CONTENT_TYPE, "application/json; charset="+DEFAULT_CHARSET)
+                    .end(actionResult);
+        });
+
+        router.get("/transactions/search").handler(res -> {
+            JsonObject criteria = new JsonObject();
+            for (String param : SEARCH_PARAMS) {
+                String value = res.request().getParam(param);
+                if (value != null && !value.trim().isEmpty()) {
+                    criteria.put(param, value);
+                }
+            }
+            if (!TransactionSearchIndex.hasSearchableCriteria(criteria)) {
+                res.response()
+                        .setStatusCode(400)
+                        .putHeader(HttpHeaders.CONTENT_TYPE, "text/plain; charset="+DEFAULT_CHARSET)
+                        .end("Chybí kritérium vyhledávání \"q\", \"variableSymbol\", \"specificSymbol\" nebo \"counterparty\"");
+                return;
+            }
+            int limit;
+            try {
+                limit = Math.min(Integer.parseInt(res.request().getParam("limit", String.valueOf(DEFAULT_SEARCH_LIMIT))), MAX_SEARCH_LIMIT);
+            } catch (NumberFormatException e) {
+                limit = DEFAULT_SEARCH_LIMIT;
+            }
+
+            DbService dbService = new DbService(vertx, res.request().getHeader(SESSION_HEADER));
+            if (!TransactionSearchIndex.forVertx(vertx).isReady()) {
+                vertx.executeBlocking(promise -> {
+                    try {
+                        promise.complete(dbService.buildSearchIndex());
+                    } catch (Exception e) {
+                        promise.fail(e);
+                    }
+                }, false);
+                res.response()
+                        .setStatusCode(503)
+                        .putHeader(HttpHeaders.CONTENT_TYPE, "text/plain; charset="+DEFAULT_CHARSET)
+                        .end("Vyhledávací index se sestavuje, opakujte požadavek později");
+                return;
+            }
+            String actionResult = dbService.searchTransactions(criteria, Math.max(limit, 1));
+
+            res.response()
+                    .putHeader(HttpHeaders.CONTENT_TYPE, "application/json; charset="+DEFAULT_CHARSET)
+                    .end(actionResult);
+        });
+
+        router.get("/statements/:statementId/export").handler(res -> {
+            long statementId;
+            try {
+                statementId = Long.parseLong(res.request().getParam("statementId"));
+            } catch (NumberFormatException e) {
+                res.response()
+                        .setStatusCode(400)
+                        .putHeader(HttpHeaders.CONTENT_TYPE, "text/plain; charset="+DEFAULT_CHARSET)
+                        .end("Parametr \"statementId\" musí být číslo");
+                return;
+            }
+            String format = res.request().getParam("format", StatementExporter.FORMAT_CSV);
+            if (!StatementExporter.isSupportedFormat(format)) {
+                res.response()
+                        .setStatusCode(400)
+                        .putHeader(HttpHeaders.CONTENT_TYPE, "text/plain; charset="+DEFAULT_CHARSET)
+                        .end("Nepodporovaný formát exportu: " + format);
+                return;
+            }
+
+            if (runningExports.incrementAndGet() > maxExports) {
+                runningExports.decrementAndGet();
+                res.response()
+                        .setStatusCode(503)
+                        .putHeader(HttpHeaders.RETRY_AFTER, String.valueOf(EXPORT_RETRY_AFTER_SECONDS))
+                        .putHeader(HttpHeaders.CONTENT_TYPE, "text/plain; charset="+DEFAULT_CHARSET)
+                        .end("Probíhá příliš mnoho exportů, opakujte požadavek později");
+                return;
+            }
+
+            HttpServerResponse response = res.response();
+            ResponseChannel channel = new ResponseChannel(response, headers -> headers
+                    .putHeader(HttpHeaders.CONTENT_TYPE, StatementExporter.contentType(format))
+                    .putHeader(HttpHeaders.CONTENT_DISPOSITION, String.format("attachment; filename=\"statement-%d.%s\"", statementId, format)));
+            DbService dbService = new DbService(vertx, res.request().getHeader(SESSION_HEADER));
+            exportExecutor.<Boolean>executeBlocking(promise -> {
+                try {
+                    promise.complete(dbService.exportStatement(statementId, format, channel));
+                } catch (Exception e) {
+                    promise.fail(e);
+                }
+            }, false, ar -> {
+                runningExports.decrementAndGet();
+                if (ar.succeeded() && ar.result()) {
+                    response.end();
+                } else if (response.headWritten()) {
+                    logger.error("Export výpisu " + statementId + " byl přerušen. Chyba: " + ar.cause().getMessage());
+                    response.reset();
+                } else {
+                    response.setStatusCode(ar.succeeded() ? 404 : 500)
+                            .putHeader(HttpHeaders.CONTENT_TYPE, "text/plain; charset="+DEFAULT_CHARSET)
+                            .end(ar.succeeded() ? "Výpis " + statementId + " nebyl nalezen" : "Nepodařilo se exportovat výpis. Chyba: " + ar.cause().getMessage());
+                }
+            });
+        });
+
         router.route().handler(BodyHandler.create());
 
         router.post("/db").handler(res -> {
@@ -82,7 +236,7 @@ public class RestApi {
 
             if(action.equals(SETUP_ACTION) || action.equals(DROP_ACTION) || action.equals(FILL_ACTION) || action.equals(TEST_ACTION)) {
 
-                DbService dbService = new DbService(vertx);
+                DbService dbService = new DbService(vertx, res.request().getHeader(SESSION_HEADER));
 
                 switch (action) {
                     case SETUP_ACTION:
@@ -121,7 +275,7 @@ public class RestApi {
                         .end(BODY_MISSING);
                 return;
             }
-            DbService dbService = new DbService(vertx);
+            DbService dbService = new DbService(vertx, res.request().getHeader(SESSION_HEADER));
             actionResult = dbService.createAccount(body);
 
             res.response()
@@ -139,7 +293,7 @@ public class RestApi {
                         .end(BODY_MISSING);
                 return;
             }
-            DbService dbService = new DbService(vertx);
+            DbService dbService = new DbService(vertx, res.request().getHeader(SESSION_HEADER));
             actionResult = dbService.createStatement(body);
 
             res.response()
@@ -157,7 +311,7 @@ public class RestApi {
                         .end(BODY_MISSING);
                 return;
             }
-            DbService dbService = new DbService(vertx);
+            DbService dbService = new DbService(vertx, res.request().getHeader(SESSION_HEADER));
             actionResult = dbService.createTransactionType(body);
 
             res.response()
@@ -175,14 +329,32 @@ public class RestApi {
                         .end(BODY_MISSING);
                 return;
             }
-            DbService dbService = new DbService(vertx);
-            actionResult = dbService.createTransaction(body);
+            DbService dbService = new DbService(vertx, res.request().getHeader(SESSION_HEADER));
+            actionResult = dbService.createTransaction(body, res.request().getHeader(IDEMPOTENCY_HEADER));
 
             res.response()
+                    .setStatusCode(DbService.IDEMPOTENCY_KEY_REUSED.equals(actionResult) ? 422 : 200)
                     .putHeader(HttpHeaders.CONTENT_TYPE, "text/plain; charset="+DEFAULT_CHARSET)
                     .end(actionResult);
         });
 
         return router;
     }
+
+    /**
+     * Metoda vrací maximální počet souběžných exportů výpisů.
+     * Každý export drží po celou dobu jedno připojení z poolu, proto je počet vždy nižší než "max_pool_size"
+     * a zbylá připojení zůstávají ostatním požadavkům.
+     * @return maximální počet souběžných exportů
+     */
+    private int maxConcurrentExports() {
+        JsonObject dbConfig = (JsonObject) vertx.sharedData().getLocalMap("app-config").get("dbConfig");
+        int maxPoolSize = dbConfig == null ? 10 : dbConfig.getInteger("max_pool_size", 10);
+        return Math.max(1, Math.min(exportConfig().getInteger("max_concurrent", 2), maxPoolSize - 1));
+    }
+
+    private JsonObject exportConfig() {
+        JsonObject config = (JsonObject) vertx.sharedData().getLocalMap("app-config").get("exportConfig");
+        return config == null ? new JsonObject() : config;
+    }
 }
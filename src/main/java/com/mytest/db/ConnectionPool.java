@@ -0,0 +1,237 @@
+package com.mytest.db;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jednoduchý pool JDBC připojení k jedné databázi.
+ * Připojení se vytvářejí přes DriverManager a po zavření se vrací do poolu místo skutečného uzavření.
+ * Počet současně vypůjčených připojení je omezen hodnotou maxSize.
+ */
+public class ConnectionPool {
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionPool.class);
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int maxSize;
+    private final long connectionTimeout;
+    private final long idleTimeout;
+    private final BlockingDeque<IdleConnection> idle = new LinkedBlockingDeque<>();
+    private final Semaphore permits;
+    private volatile boolean closed = false;
+
+    /**
+     * Konstruktor třídy ConnectionPool.
+     * @param url - JDBC URL databáze
+     * @param user - uživatelské jméno
+     * @param password - heslo
+     * @param maxSize - maximální počet připojení v poolu
+     * @param connectionTimeout - maximální doba čekání na volné připojení v milisekundách
+     * @param idleTimeout - doba v milisekundách, po které se nepoužívané připojení zavře
+     */
+    public ConnectionPool(String url, String user, String password, int maxSize, long connectionTimeout, long idleTimeout) {
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.maxSize = Math.max(1, maxSize);
+        this.connectionTimeout = connectionTimeout;
+        this.idleTimeout = idleTimeout;
+        this.permits = new Semaphore(this.maxSize, true);
+    }
+
+    /**
+     * Metoda pro vypůjčení připojení z poolu.
+     * Vrácené připojení je nutné zavřít, tím se vrátí zpět do poolu.
+     * @return připojení k databázi
+     * @throws SQLTimeoutException - všechna připojení poolu jsou vypůjčena a volné se neuvolnilo včas
+     * @throws SQLException - chyba při vytváření připojení
+     */
+    public Connection getConnection() throws SQLException {
+        return getConnection(connectionTimeout);
+    }
+
+    /**
+     * Metoda pro vypůjčení připojení z poolu s vlastním časovým limitem čekání na volné připojení.
+     * @param acquireTimeout - maximální doba čekání na volné připojení v milisekundách, 0 znamená nečekat
+     * @return připojení k databázi
+     * @throws SQLTimeoutException - všechna připojení poolu jsou vypůjčena a volné se neuvolnilo včas
+     * @throws SQLException - chyba při vytváření připojení
+     */
+    public Connection getConnection(long acquireTimeout) throws SQLException {
+        if (closed) {
+            throw new SQLException(String.format("Pool připojení k \"%s\" je uzavřen.", url));
+        }
+        try {
+            if (!permits.tryAcquire(acquireTimeout, TimeUnit.MILLISECONDS)) {
+                throw new SQLTimeoutException(String.format("Vypršel časový limit pro získání připojení k \"%s\".", url));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Čekání na připojení bylo přerušeno.", e);
+        }
+        try {
+            IdleConnection candidate;
+            while ((candidate = idle.pollFirst()) != null) {
+                if (System.currentTimeMillis() - candidate.lastUsed > idleTimeout || candidate.connection.isClosed()) {
+                    closeQuietly(candidate.connection);
+                    continue;
+                }
+                return wrap(candidate.connection);
+            }
+            return wrap(DriverManager.getConnection(url, user, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Metoda pro předvytvoření připojení, aby první požadavky nemusely čekat na přihlášení k databázi.
+     * @param count - požadovaný počet připravených připojení, nejvýše maxSize
+     * @return počet nově vytvořených připojení
+     * @throws SQLException - chyba při vytváření připojení
+     */
+    public int prefill(int count) throws SQLException {
+        int created = 0;
+        int target = Math.min(count, maxSize);
+        while (!closed && idle.size() < target && idle.size() < permits.availablePermits()) {
+            idle.offerLast(new IdleConnection(DriverManager.getConnection(url, user, password), System.currentTimeMillis()));
+            created++;
+        }
+        return created;
+    }
+
+    /**
+     * Metoda pro ověření, zda je databáze poolu dostupná.
+     * Plně vytížený pool, ve kterém není volné připojení, se považuje za dostupný; na uvolnění připojení se nečeká.
+     * @param timeoutSeconds - časový limit ověření v sekundách
+     * @return true, pokud je připojení platné
+     */
+    public boolean isHealthy(int timeoutSeconds) {
+        try (Connection connection = getConnection(0)) {
+            return connection.isValid(timeoutSeconds);
+        } catch (SQLTimeoutException e) {
+            return true;
+        } catch (SQLException e) {
+            logger.warn(String.format("Databáze \"%s\" není dostupná. Chyba: %s", url, e.getMessage()));
+            return false;
+        }
+    }
+
+    /**
+     * Metoda vrací JDBC URL databáze poolu.
+     * @return JDBC URL
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * Metoda pro uzavření poolu a všech nepoužívaných připojení.
+     */
+    public void close() {
+        closed = true;
+        IdleConnection candidate;
+        while ((candidate = idle.pollFirst()) != null) {
+            closeQuietly(candidate.connection);
+        }
+    }
+
+    private void release(Connection connection) {
+        try {
+            if (closed || connection.isClosed()) {
+                closeQuietly(connection);
+                return;
+            }
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+            idle.offerFirst(new IdleConnection(connection, System.currentTimeMillis()));
+        } catch (SQLException e) {
+            logger.warn("Připojení nelze vrátit do poolu, bude zavřeno. Chyba: " + e.getMessage());
+            closeQuietly(connection);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(
+                ConnectionPool.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new PooledConnectionHandler(connection));
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            logger.warn("Nepodařilo se zavřít připojení. Chyba: " + e.getMessage());
+        }
+    }
+
+    private static final class IdleConnection {
+        private final Connection connection;
+        private final long lastUsed;
+
+        private IdleConnection(Connection connection, long lastUsed) {
+            this.connection = connection;
+            this.lastUsed = lastUsed;
+        }
+    }
+
+    /**
+     * Obálka připojení, která místo zavření vrací připojení do poolu.
+     */
+    private final class PooledConnectionHandler implements InvocationHandler {
+        private final Connection connection;
+        private boolean returned = false;
+
+        private PooledConnectionHandler(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        release(connection);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || connection.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled" + connection;
+                default:
+                    if (returned) {
+                        throw new SQLException("Připojení již bylo vráceno do poolu.");
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+            }
+        }
+    }
+}
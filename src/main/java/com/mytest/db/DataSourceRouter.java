@@ -0,0 +1,262 @@
+package com.mytest.db;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Třída pro směrování připojení mezi primární databází a čtecími replikami.
+ * Zápisy jdou vždy do primární databáze, čtení se rozdělují mezi zdravé repliky podle jejich váhy.
+ * Pokud není k dispozici žádná zdravá replika, čtení se provádí z primární databáze.
+ * Na volné připojení repliky se čeká nejvýše "replica_acquire_timeout" milisekund. Replika, jejíž pool je
+ * plně vytížen, zůstává zdravá a čtení daného požadavku zkusí další zdravou repliku, nakonec primární databázi.
+ * Relace, která nedávno zapisovala, čte po dobu "read_your_writes_ms" z primární databáze.
+ */
+public class DataSourceRouter {
+    private static final Logger logger = LoggerFactory.getLogger(DataSourceRouter.class);
+    private static final Map<Vertx, DataSourceRouter> routers = new ConcurrentHashMap<>();
+    private static final int HEALTH_CHECK_TIMEOUT = 5;
+    private static final int MAX_TRACKED_SESSIONS = 10000;
+
+    private final ConnectionPool primary;
+    private final List<Replica> replicas;
+    private final long readYourWritesMs;
+    private final long replicaAcquireTimeout;
+    private final long healthCheckInterval;
+    private final int prefillSize;
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+
+    /**
+     * Konstruktor třídy DataSourceRouter.
+     * @param dbConfig - konfigurace databáze (sekce "db" konfiguračního souboru)
+     */
+    public DataSourceRouter(JsonObject dbConfig) {
+        this.primary = createPool(dbConfig, dbConfig);
+        this.readYourWritesMs = dbConfig.getLong("read_your_writes_ms", 0L);
+        this.replicaAcquireTimeout = dbConfig.getLong("replica_acquire_timeout", 0L);
+        this.healthCheckInterval = dbConfig.getLong("health_check_interval", 10000L);
+        this.prefillSize = dbConfig.getInteger("prefill_size", 1);
+
+        List<Replica> replicaList = new ArrayList<>();
+        JsonArray replicasConfig = dbConfig.getJsonArray("replicas", new JsonArray());
+        for (int i = 0; i < replicasConfig.size(); i++) {
+            JsonObject replicaConfig = replicasConfig.getJsonObject(i);
+            int weight = replicaConfig.getInteger("weight", 1);
+            if (weight <= 0) {
+                continue;
+            }
+            replicaList.add(new Replica(createPool(replicaConfig, dbConfig), weight));
+        }
+        this.replicas = Collections.unmodifiableList(replicaList);
+    }
+
+    /**
+     * Metoda vrací sdílenou instanci routeru pro danou instanci Vertx.
+     * Instance se vytvoří při prvním volání z konfigurace uložené ve sdílených datech.
+     * @param vertx instance třídy Vertx
+     * @return instance routeru
+     */
+    public static DataSourceRouter forVertx(Vertx vertx) {
+        return routers.computeIfAbsent(vertx, v -> {
+            JsonObject dbConfig = (JsonObject) v.sharedData().getLocalMap("app-config").get("dbConfig");
+            if (dbConfig == null) {
+                throw new IllegalStateException("Konfigurace databáze nebyla načtena.");
+            }
+            DataSourceRouter router = new DataSourceRouter(dbConfig);
+            router.startHealthChecks(v);
+            return router;
+        });
+    }
+
+    /**
+     * Metoda pro uzavření sdílené instance routeru pro danou instanci Vertx.
+     * @param vertx instance třídy Vertx
+     */
+    public static void shutdown(Vertx vertx) {
+        DataSourceRouter router = routers.remove(vertx);
+        if (router != null) {
+            router.close();
+        }
+    }
+
+    /**
+     * Metoda pro získání připojení k primární databázi pro zápis.
+     * Relace je označena jako zapisující, aby její následná čtení šla do primární databáze.
+     * @param sessionId - identifikátor relace, může být null
+     * @return připojení k primární databázi
+     * @throws SQLException - chyba při získání připojení
+     */
+    public Connection getWriteConnection(String sessionId) throws SQLException {
+        if (sessionId != null && readYourWritesMs > 0) {
+            markWritten(sessionId);
+        }
+        return primary.getConnection();
+    }
+
+    /**
+     * Metoda pro získání připojení pro čtení.
+     * @param sessionId - identifikátor relace, může být null
+     * @return připojení k replice nebo k primární databázi
+     * @throws SQLException - chyba při získání připojení
+     */
+    public Connection getReadConnection(String sessionId) throws SQLException {
+        if (replicas.isEmpty() || hasRecentWrite(sessionId)) {
+            return primary.getConnection();
+        }
+        for (Replica replica : healthyReplicasByWeight()) {
+            try {
+                return replica.pool.getConnection(replicaAcquireTimeout);
+            } catch (SQLTimeoutException e) {
+                logger.debug(String.format("Pool repliky \"%s\" je plně vytížen, čtení zkusí další databázi.", replica.pool.getUrl()));
+            } catch (SQLException e) {
+                replica.healthy = false;
+                logger.warn(String.format("Replika \"%s\" není dostupná, čtení půjde do primární databáze. Chyba: %s",
+                        replica.pool.getUrl(), e.getMessage()));
+            }
+        }
+        return primary.getConnection();
+    }
+
+    /**
+     * Metoda vrací pool primární databáze.
+     * @return pool primární databáze
+     */
+    public ConnectionPool getPrimaryPool() {
+        return primary;
+    }
+
+    /**
+     * Metoda pro předvytvoření "prefill_size" připojení v primárním poolu a v poolech dostupných replik.
+     * Nedostupná replika je označena jako nezdravá a nebrání předvytvoření ostatních poolů.
+     * @return celkový počet nově vytvořených připojení
+     * @throws SQLException - chyba při vytváření připojení k primární databázi
+     */
+    public int prefill() throws SQLException {
+        int created = primary.prefill(prefillSize);
+        for (Replica replica : replicas) {
+            try {
+                created += replica.pool.prefill(prefillSize);
+            } catch (SQLException e) {
+                replica.healthy = false;
+                logger.warn(String.format("Pool repliky \"%s\" nelze předvytvořit. Chyba: %s", replica.pool.getUrl(), e.getMessage()));
+            }
+        }
+        return created;
+    }
+
+    /**
+     * Metoda pro ověření dostupnosti všech replik a aktualizaci jejich stavu.
+     */
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            boolean healthy = replica.pool.isHealthy(HEALTH_CHECK_TIMEOUT);
+            if (healthy != replica.healthy) {
+                logger.info(String.format("Replika \"%s\" je nyní %s.", replica.pool.getUrl(), healthy ? "dostupná" : "nedostupná"));
+            }
+            replica.healthy = healthy;
+        }
+        long now = System.currentTimeMillis();
+        lastWrites.values().removeIf(writtenAt -> now - writtenAt > readYourWritesMs);
+    }
+
+    /**
+     * Metoda pro spuštění pravidelné kontroly replik.
+     * @param vertx instance třídy Vertx
+     */
+    public void startHealthChecks(Vertx vertx) {
+        if (replicas.isEmpty() || healthCheckInterval <= 0) {
+            return;
+        }
+        vertx.setPeriodic(healthCheckInterval, id -> vertx.executeBlocking(promise -> {
+            checkReplicas();
+            promise.complete();
+        }, false));
+    }
+
+    /**
+     * Metoda pro uzavření všech poolů připojení.
+     */
+    public void close() {
+        primary.close();
+        for (Replica replica : replicas) {
+            replica.pool.close();
+        }
+    }
+
+    /**
+     * Metoda vrací zdravé repliky v náhodném pořadí, ve kterém má replika s vyšší váhou větší šanci být dříve.
+     */
+    private List<Replica> healthyReplicasByWeight() {
+        List<Replica> remaining = new ArrayList<>();
+        int totalWeight = 0;
+        for (Replica replica : replicas) {
+            if (replica.healthy) {
+                remaining.add(replica);
+                totalWeight += replica.weight;
+            }
+        }
+        List<Replica> ordered = new ArrayList<>(remaining.size());
+        while (!remaining.isEmpty()) {
+            int point = ThreadLocalRandom.current().nextInt(totalWeight);
+            for (int i = 0; i < remaining.size(); i++) {
+                point -= remaining.get(i).weight;
+                if (point < 0) {
+                    Replica chosen = remaining.remove(i);
+                    ordered.add(chosen);
+                    totalWeight -= chosen.weight;
+                    break;
+                }
+            }
+        }
+        return ordered;
+    }
+
+    private void markWritten(String sessionId) {
+        long now = System.currentTimeMillis();
+        if (lastWrites.size() >= MAX_TRACKED_SESSIONS) {
+            lastWrites.values().removeIf(writtenAt -> now - writtenAt > readYourWritesMs);
+        }
+        lastWrites.put(sessionId, now);
+    }
+
+    private boolean hasRecentWrite(String sessionId) {
+        if (sessionId == null || readYourWritesMs <= 0) {
+            return false;
+        }
+        Long writtenAt = lastWrites.get(sessionId);
+        return writtenAt != null && System.currentTimeMillis() - writtenAt <= readYourWritesMs;
+    }
+
+    private static ConnectionPool createPool(JsonObject config, JsonObject defaults) {
+        return new ConnectionPool(
+                config.getString("url"),
+                config.getString("user", defaults.getString("user")),
+                config.getString("password", defaults.getString("password")),
+                config.getInteger("max_pool_size", defaults.getInteger("max_pool_size", 10)),
+                config.getLong("connection_timeout", defaults.getLong("connection_timeout", 30000L)),
+                config.getLong("idle_timeout", defaults.getLong("idle_timeout", 600000L)));
+    }
+
+    private static final class Replica {
+        private final ConnectionPool pool;
+        private final int weight;
+        private volatile boolean healthy = true;
+
+        private Replica(ConnectionPool pool, int weight) {
+            this.pool = pool;
+            this.weight = weight;
+        }
+    }
+}
@@ -11,14 +11,24 @@ import java.io.InputStream;
 import java.math.BigDecimal;
 import java.net.URL;
 
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Date;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Třída databázových služeb.
@@ -28,46 +38,96 @@ import java.util.Scanner;
  */
 
 public class DbService {
+    /**
+     * Výsledek vytvoření transakce, pokud byl klíč idempotence již použit pro požadavek s jiným tělem.
+     */
+    public static final String IDEMPOTENCY_KEY_REUSED = "Hodnota hlavičky Idempotency-Key již byla použita pro jiná data transakce.";
     private static final Logger logger = LoggerFactory.getLogger(DbService.class);
+    private static final int EXPORT_FETCH_SIZE = 1000;
+    private static final int[] UNIQUE_VIOLATION_ERRORS = {2601, 2627};
+    private static final String[] SQL_RESOURCES = {
+            "create_transaction.sql", "create_transactionType.sql", "create_statement.sql", "create_account.sql",
+            "fk_transaction_counterPartyAccount.sql", "fk_transaction_transactionType.sql", "fk_transaction_statement.sql",
+            "idx_transaction_statement.sql", "select_transactions.sql", "select_transaction_by_id.sql",
+            "select_transactions_summary.sql", "select_statement_transactions.sql", "select_search_index.sql",
+            "uq_transaction_transactionId_bankref.sql", "select_recent_transaction_keys.sql"};
+    private static final String[] SQL_TEMPLATES = {"select_transactions_by_ids.sql"};
+    private static final Map<String, String> resourceCache = new ConcurrentHashMap<>();
     private final Vertx vertx;
-    private final JsonObject dbConfig;
+    private final String sessionId;
 
     /**
      * Konstruktor třídy DbService.
      * @param vertx instance třídy Vertx
      */
     public DbService(Vertx vertx) {
+        this(vertx, null);
+    }
+
+    /**
+     * Konstruktor třídy DbService pro konkrétní relaci klienta.
+     * Relace, která nedávno zapisovala, čte svá data z primární databáze.
+     * @param vertx instance třídy Vertx
+     * @param sessionId - identifikátor relace, může být null
+     */
+    public DbService(Vertx vertx, String sessionId) {
         this.vertx = vertx;
-        this.dbConfig = (JsonObject) vertx.sharedData().getLocalMap("app-config").get("dbConfig");
+        this.sessionId = sessionId;
     }
 
     /**
      * Metoda pro čtení zdroje z classpath.
+     * Načtený obsah se uchovává v paměti, další čtení stejného zdroje již nepřistupuje ke classpath.
      * @param resourceName - název zdroje
      * @return obsah zdroje
      * @throws IOException - chyba při čtení zdroje
      */
     public String readResourceStr(String resourceName) throws IOException{
+        String cached = resourceCache.get(resourceName);
+        if (cached != null) {
+            return cached;
+        }
         URL resource = getClass().getClassLoader().getResource(resourceName);
         if(resource == null) {
             throw new IOException(String.format("Zdroj \"%s\" nebyl nalezen.", resourceName));
         }
         try (InputStream inputStream = resource.openStream();
              Scanner scanner = new Scanner(inputStream, StandardCharsets.UTF_8)) {
-            return scanner.useDelimiter("\\A").next();
+            String content = scanner.useDelimiter("\\A").next();
+            resourceCache.put(resourceName, content);
+            return content;
         } catch (IOException e) {
             throw new IOException(String.format("Nepodařilo se načíst soubor \"%s\". Chyba: %s", resourceName, e.getMessage()));
         }
     }
 
+    /**
+     * Metoda pro načtení všech SQL zdrojů do paměti při startu aplikace.
+     * Šablony (SQL_TEMPLATES) nejsou platné SQL dotazy, dokud se do nich nedoplní části dotazu pomocí String.format.
+     * @return počet načtených zdrojů
+     * @throws IOException - chyba při čtení zdroje
+     */
+    public int preloadResources() throws IOException {
+        for (String resourceName : SQL_RESOURCES) {
+            readResourceStr(resourceName);
+        }
+        for (String templateName : SQL_TEMPLATES) {
+            readResourceStr(templateName);
+        }
+        return SQL_RESOURCES.length + SQL_TEMPLATES.length;
+    }
+
+    private DataSourceRouter dataSourceRouter() {
+        return DataSourceRouter.forVertx(vertx);
+    }
+
     /**
      * Metoda pro testování připojení k databázi.
      * @return výsledek testu
      */
     public String testDatabase(){
         String result;
-        JsonObject dbConfig =  (JsonObject) vertx.sharedData().getLocalMap("app-config").get("dbConfig");
-        try (Connection connection = DriverManager.getConnection(dbConfig.getString("url"), dbConfig.getString("user"), dbConfig.getString("password"))) {
+        try (Connection connection = dataSourceRouter().getWriteConnection(null)) {
             if(connection.isValid(5)) {
                 result = "Připojení k databázi je v pořádku.";
             } else {
@@ -85,14 +145,18 @@ public class DbService {
      */
     public String setupDatabase() {
         String result;
-        try (Connection connection = DriverManager.getConnection(dbConfig.getString("url"), dbConfig.getString("user"), dbConfig.getString("password"))) {
-            connection.createStatement().executeUpdate(readResourceStr("create_transaction.sql"));
-            connection.createStatement().executeUpdate(readResourceStr("create_transactionType.sql"));
-            connection.createStatement().executeUpdate(readResourceStr("create_statement.sql"));
-            connection.createStatement().executeUpdate(readResourceStr("create_account.sql"));
-            connection.createStatement().executeUpdate(readResourceStr("fk_transaction_counterPartyAccount.sql"));
-            connection.createStatement().executeUpdate(readResourceStr("fk_transaction_transactionType.sql"));
-            connection.createStatement().executeUpdate(readResourceStr("fk_transaction_statement.sql"));
+        try (Connection connection = dataSourceRouter().getWriteConnection(sessionId)) {
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate(readResourceStr("create_transaction.sql"));
+                statement.executeUpdate(readResourceStr("create_transactionType.sql"));
+                statement.executeUpdate(readResourceStr("create_statement.sql"));
+                statement.executeUpdate(readResourceStr("create_account.sql"));
+                statement.executeUpdate(readResourceStr("fk_transaction_counterPartyAccount.sql"));
+                statement.executeUpdate(readResourceStr("fk_transaction_transactionType.sql"));
+                statement.executeUpdate(readResourceStr("fk_transaction_statement.sql"));
+                statement.executeUpdate(readResourceStr("idx_transaction_statement.sql"));
+                statement.executeUpdate(readResourceStr("uq_transaction_transactionId_bankref.sql"));
+            }
 
             result = "Nastavení databáze dokončeno.";
         } catch (SQLException | IOException e) {
@@ -107,11 +171,16 @@ public class DbService {
      */
     public String dropDatabase() {
         String result;
-        try (Connection connection = DriverManager.getConnection(dbConfig.getString("url"), dbConfig.getString("user"), dbConfig.getString("password"))) {
-            connection.createStatement().executeUpdate("DROP TABLE IF EXISTS [transaction]");
-            connection.createStatement().executeUpdate("DROP TABLE IF EXISTS [transactionType]");
-            connection.createStatement().executeUpdate("DROP TABLE IF EXISTS [statement]");
-            connection.createStatement().executeUpdate("DROP TABLE IF EXISTS [account]");
+        try (Connection connection = dataSourceRouter().getWriteConnection(sessionId)) {
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate("DROP TABLE IF EXISTS [transaction]");
+                statement.executeUpdate("DROP TABLE IF EXISTS [transactionType]");
+                statement.executeUpdate("DROP TABLE IF EXISTS [statement]");
+                statement.executeUpdate("DROP TABLE IF EXISTS [account]");
+            }
+            TransactionSearchIndex.shutdown(vertx);
+            DuplicateFilter.shutdown(vertx);
+            HotAccountStore.shutdown(vertx);
             result = "Tabulky databáze byly úspěšně zrušeny.";
         } catch (SQLException e) {
             result = "Nepodařilo se zrušit tabulky databáze. Chyba: " + e.getMessage();
@@ -134,14 +203,18 @@ public class DbService {
             return "Nepodařilo se vytvořit účet. Položky \"name\", \"number\" and \"code\" jsou povinné.";
         }
 
-        try (Connection connection = DriverManager.getConnection(dbConfig.getString("url"), dbConfig.getString("user"), dbConfig.getString("password"))) {
+        try (Connection connection = dataSourceRouter().getWriteConnection(sessionId)) {
             String sql = "INSERT INTO account (name, number, code) VALUES (?, ?, ?)";
-            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            try (PreparedStatement pstmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
                 pstmt.setString(1, name);
                 pstmt.setString(2, number);
                 pstmt.setString(3, code);
                 pstmt.executeUpdate();
                 result = "Účet byl úspěšně vytvořen.";
+                long accountId = generatedKey(pstmt);
+                if (accountId >= 0) {
+                    TransactionSearchIndex.forVertx(vertx).addAccount(accountId, name);
+                }
             }
         } catch (SQLException e) {
             result = "Nepodařilo se vytvořit účet. Chyba: " + e.getMessage();
@@ -169,7 +242,7 @@ public class DbService {
             return "Nepodařilo se vytvořit typ transakce. Položky \"type\" and \"code\" jsou povinné.";
         }
 
-        try (Connection connection = DriverManager.getConnection(dbConfig.getString("url"), dbConfig.getString("user"), dbConfig.getString("password"))) {
+        try (Connection connection = dataSourceRouter().getWriteConnection(sessionId)) {
             String sql = "INSERT INTO transactionType (type, code) VALUES (?, ?)";
             try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
                 pstmt.setString(1, type);
@@ -205,7 +278,7 @@ public class DbService {
             return "Nepodařilo se vytvořit výpis. Položky \"number\" and \"period\" jsou povinné.";
         }
 
-        try (Connection connection = DriverManager.getConnection(dbConfig.getString("url"), dbConfig.getString("user"), dbConfig.getString("password"))) {
+        try (Connection connection = dataSourceRouter().getWriteConnection(sessionId)) {
             String sql = "INSERT INTO statement (number, period, description) VALUES (?, ?, ?)";
             try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
                 pstmt.setString(1, number);
@@ -226,6 +299,30 @@ public class DbService {
      * @return výsledek vytvoření transakce
      */
     public String createTransaction(String transactionData) {
+        return createTransaction(transactionData, null);
+    }
+
+    /**
+     * Metoda pro idempotentní vytvoření transakce v databázi.
+     * Transakce se stejnou dvojicí transactionId a bankref se vytvoří pouze jednou. Nedávno zapsaný
+     * duplikát se rozpozná filtrem duplicit bez dotazu do databáze, ostatní duplikáty odmítne unikátní klíč.
+     * Opakovaný požadavek se stejným klíčem idempotence a stejným tělem vrátí výsledek původního požadavku,
+     * s jiným tělem vrátí IDEMPOTENCY_KEY_REUSED a transakci nevytvoří.
+     * @param transactionData - Údaje o transakci
+     * @param idempotencyKey - hodnota hlavičky Idempotency-Key, může být null
+     * @return výsledek vytvoření transakce
+     */
+    public String createTransaction(String transactionData, String idempotencyKey) {
+        DuplicateFilter duplicateFilter = DuplicateFilter.forVertx(vertx);
+        String requestHash = null;
+        if (idempotencyKey != null) {
+            requestHash = DuplicateFilter.requestHash(transactionData);
+            DuplicateFilter.IdempotentResult previous = duplicateFilter.idempotentResult(idempotencyKey);
+            if (previous != null) {
+                return previous.matches(requestHash) ? previous.getResult() : IDEMPOTENCY_KEY_REUSED;
+            }
+        }
+
         String result;
         JsonObject transactionJson;
         try {
@@ -294,9 +391,18 @@ public class DbService {
 
         String variableSymbol = transactionJson.getString("variableSymbol");
 
-        try (Connection connection = DriverManager.getConnection(dbConfig.getString("url"), dbConfig.getString("user"), dbConfig.getString("password"))) {
+        String duplicateKey = transactionId == null ? null : DuplicateFilter.key(transactionId, bankref);
+        String duplicateResult = String.format("Transakce s transactionId \"%s\" a bankref \"%s\" již existuje.", transactionId, bankref);
+        if (duplicateKey != null && duplicateFilter.isRecent(duplicateKey)) {
+            if (idempotencyKey != null) {
+                duplicateFilter.rememberIdempotent(idempotencyKey, requestHash, duplicateResult);
+            }
+            return duplicateResult;
+        }
+
+        try (Connection connection = dataSourceRouter().getWriteConnection(sessionId)) {
             String sql = "INSERT INTO [transaction] (amount, currency, bankref, bookingDate, counterPartyAccount, creditDebitIndicator, detail1, id, ownAccountNumber, postingDate, productBankRef, specificSymbol, statement, transactionId, transactionType, variableSymbol) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
-            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            try (PreparedStatement pstmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
                 pstmt.setBigDecimal(1, amount);
                 pstmt.setString(2, currency);
                 pstmt.setString(3, bankref);
@@ -323,13 +429,102 @@ public class DbService {
                 pstmt.setString(16, variableSymbol);
                 pstmt.executeUpdate();
                 result = "Transakce byla úspěšně vytvořena.";
+                if (duplicateKey != null) {
+                    duplicateFilter.remember(duplicateKey);
+                }
+                if (idempotencyKey != null) {
+                    duplicateFilter.rememberIdempotent(idempotencyKey, requestHash, result);
+                }
+                long trxId = generatedKey(pstmt);
+                if (trxId >= 0) {
+                    TransactionSearchIndex.forVertx(vertx).addTransaction(trxId, ownAccountNumber, counterPartyAccount,
+                            variableSymbol, specificSymbol, detail1);
+                }
+                updateHotAccount(ownAccountNumber, trxId, connection);
             }
         } catch (SQLException e) {
-            result = "Nepodařilo se vytvořit transakci. Chyba: " + e.getMessage();
+            if (duplicateKey == null || !isUniqueViolation(e)) {
+                return "Nepodařilo se vytvořit transakci. Chyba: " + e.getMessage();
+            }
+            duplicateFilter.remember(duplicateKey);
+            if (idempotencyKey != null) {
+                duplicateFilter.rememberIdempotent(idempotencyKey, requestHash, duplicateResult);
+            }
+            result = duplicateResult;
         }
         return result;
     }
 
+    /**
+     * Metoda pro doplnění vytvořené transakce do paměti horkých účtů.
+     * Chyba při doplnění neovlivní výsledek zápisu, účet se pouze uvolní z paměti.
+     * @param ownAccountNumber - číslo účtu transakce
+     * @param trxId - identifikátor vytvořené transakce
+     * @param connection - připojení, přes které byla transakce zapsána
+     */
+    private void updateHotAccount(String ownAccountNumber, long trxId, Connection connection) {
+        HotAccountStore hotAccountStore = HotAccountStore.forVertx(vertx);
+        if (ownAccountNumber == null || !hotAccountStore.isLoaded(ownAccountNumber)) {
+            return;
+        }
+        if (trxId < 0) {
+            hotAccountStore.invalidate(ownAccountNumber);
+            return;
+        }
+        try {
+            hotAccountStore.onTransactionCreated(ownAccountNumber, trxId, connection, readResourceStr("select_transaction_by_id.sql"));
+        } catch (SQLException | IOException e) {
+            hotAccountStore.invalidate(ownAccountNumber);
+            logger.error("Nepodařilo se doplnit transakci do paměti horkých účtů. Chyba: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Metoda vrací identifikátor vygenerovaný databází při provedení příkazu INSERT.
+     * @param pstmt - provedený příkaz INSERT
+     * @return vygenerovaný identifikátor nebo -1, pokud jej databáze nevrátila
+     * @throws SQLException - chyba při čtení vygenerovaných klíčů
+     */
+    private long generatedKey(PreparedStatement pstmt) throws SQLException {
+        try (ResultSet keys = pstmt.getGeneratedKeys()) {
+            return keys.next() ? keys.getLong(1) : -1;
+        }
+    }
+
+    /**
+     * Metoda pro zjištění, zda chyba vznikla porušením unikátního klíče.
+     * SQL Server hlásí porušení chybou 2601 nebo 2627, ostatní databáze stavem SQL 23505.
+     * @param e - chyba databáze
+     * @return true, pokud jde o porušení unikátního klíče
+     */
+    private static boolean isUniqueViolation(SQLException e) {
+        for (int errorCode : UNIQUE_VIOLATION_ERRORS) {
+            if (e.getErrorCode() == errorCode) {
+                return true;
+            }
+        }
+        return "23505".equals(e.getSQLState());
+    }
+
+    /**
+     * Metoda pro načtení horkého účtu do paměti, pokud ještě načten není.
+     * Účet se načítá z primární databáze, aby odpovídal transakcím doplňovaným po zápisu.
+     * @param hotAccountStore - úložiště horkých účtů
+     * @param accountNumber - číslo účtu
+     * @return true, pokud je účet v paměti
+     */
+    private boolean loadHotAccount(HotAccountStore hotAccountStore, String accountNumber) {
+        if (hotAccountStore.isLoaded(accountNumber)) {
+            return true;
+        }
+        try (Connection connection = dataSourceRouter().getPrimaryPool().getConnection()) {
+            return hotAccountStore.load(accountNumber, connection, readResourceStr("select_transactions.sql"));
+        } catch (SQLException | IOException e) {
+            logger.error("Nepodařilo se načíst účet " + accountNumber + " do paměti. Chyba: " + e.getMessage());
+            return false;
+        }
+    }
+
     /**
      * Metoda naplnění databáze ukázkovými daty.
      * @return výsledek naplnění databáze
@@ -374,51 +569,23 @@ public class DbService {
      * @return transakce podle čísla účtu
      */
     public String getTransactionsByAccountNumber(String accountNumber) {
+        HotAccountStore hotAccountStore = HotAccountStore.forVertx(vertx);
+        if (hotAccountStore.registerRead(accountNumber) && loadHotAccount(hotAccountStore, accountNumber)) {
+            String hotTransactions = hotAccountStore.listTransactions(accountNumber);
+            if (hotTransactions != null) {
+                return hotTransactions;
+            }
+        }
+
         JsonArray transactionsArray = new JsonArray();
 
-        try (Connection connection = DriverManager.getConnection(dbConfig.getString("url"), dbConfig.getString("user"), dbConfig.getString("password"));
+        try (Connection connection = dataSourceRouter().getReadConnection(sessionId);
              PreparedStatement pstmt = connection.prepareStatement(readResourceStr("select_transactions.sql"))) {
             pstmt.setString(1, accountNumber);
             ResultSet rs = pstmt.executeQuery();
 
             while (rs.next()) {
-                JsonObject transactionJson = new JsonObject();
-                JsonObject amountJson = new JsonObject();
-                amountJson.put("currency", rs.getString("currency"));
-                amountJson.put("value", rs.getBigDecimal("amount"));
-                transactionJson.put("amount", amountJson);
-
-                transactionJson.put("bankref", rs.getString("bankref"));
-                transactionJson.put("bookingDate", rs.getDate("bookingDate").toString());
-
-                JsonObject counterPartyAccountJson = new JsonObject();
-                counterPartyAccountJson.put("accountName", rs.getString("counterPartyAccountName"));
-                counterPartyAccountJson.put("accountNumber", String.format("%016d", rs.getLong("counterPartyAccountNumber")));
-                counterPartyAccountJson.put("bankCode", rs.getString("counterPartyAccountCode"));
-                transactionJson.put("counterPartyAccount", counterPartyAccountJson);
-
-                transactionJson.put("creditDebitIndicator", rs.getString("creditDebitIndicator"));
-
-                JsonObject detailsJson = new JsonObject();
-                if (rs.getString("detail1") != null) detailsJson.put("detail1", rs.getString("detail1"));
-                if (rs.getString("detail2") != null) detailsJson.put("detail2", rs.getString("detail2"));
-                if (rs.getString("detail3") != null) detailsJson.put("detail3", rs.getString("detail3"));
-                if (rs.getString("detail4") != null) detailsJson.put("detail4", rs.getString("detail4"));
-                if (!detailsJson.isEmpty()) transactionJson.put("details", detailsJson);
-
-                transactionJson.put("id", rs.getString("id"));
-                transactionJson.put("ownAccountNumber", rs.getString("ownAccountNumber"));
-                transactionJson.put("postingDate", rs.getDate("postingDate").toString());
-                transactionJson.put("productBankRef", rs.getString("productBankRef"));
-                transactionJson.put("specificSymbol", rs.getString("specificSymbol"));
-                transactionJson.put("statementNumber", rs.getString("statementNumber"));
-                transactionJson.put("statementPeriod", rs.getString("statementPeriod"));
-                transactionJson.put("transactionId", rs.getString("transactionId"));
-                transactionJson.put("transactionType", rs.getString("transactionTypeStr"));
-                transactionJson.put("transactionTypeCode", rs.getInt("transactionTypeCode"));
-                transactionJson.put("variableSymbol", rs.getString("variableSymbol"));
-
-                transactionsArray.add(transactionJson);
+                transactionsArray.add(transactionToJson(rs));
             }
             return transactionsArray.encodePrettily();
         } catch (SQLException | IOException e) {
@@ -428,4 +595,288 @@ public class DbService {
             return errorJson.encodePrettily();
         }
     }
+
+    /**
+     * Metoda pro převod řádku výsledku dotazu na JSON transakce.
+     * @param rs - výsledek dotazu nastavený na aktuální řádek
+     * @return transakce ve formátu JSON
+     * @throws SQLException - chyba při čtení výsledku
+     */
+    private JsonObject transactionToJson(ResultSet rs) throws SQLException {
+        JsonObject transactionJson = new JsonObject();
+        JsonObject amountJson = new JsonObject();
+        amountJson.put("currency", rs.getString("currency"));
+        amountJson.put("value", rs.getBigDecimal("amount"));
+        transactionJson.put("amount", amountJson);
+
+        transactionJson.put("bankref", rs.getString("bankref"));
+        transactionJson.put("bookingDate", rs.getDate("bookingDate").toString());
+
+        JsonObject counterPartyAccountJson = new JsonObject();
+        counterPartyAccountJson.put("accountName", rs.getString("counterPartyAccountName"));
+        counterPartyAccountJson.put("accountNumber", String.format("%016d", rs.getLong("counterPartyAccountNumber")));
+        counterPartyAccountJson.put("bankCode", rs.getString("counterPartyAccountCode"));
+        transactionJson.put("counterPartyAccount", counterPartyAccountJson);
+
+        transactionJson.put("creditDebitIndicator", rs.getString("creditDebitIndicator"));
+
+        JsonObject detailsJson = new JsonObject();
+        if (rs.getString("detail1") != null) detailsJson.put("detail1", rs.getString("detail1"));
+        if (rs.getString("detail2") != null) detailsJson.put("detail2", rs.getString("detail2"));
+        if (rs.getString("detail3") != null) detailsJson.put("detail3", rs.getString("detail3"));
+        if (rs.getString("detail4") != null) detailsJson.put("detail4", rs.getString("detail4"));
+        if (!detailsJson.isEmpty()) transactionJson.put("details", detailsJson);
+
+        transactionJson.put("id", rs.getString("id"));
+        transactionJson.put("ownAccountNumber", rs.getString("ownAccountNumber"));
+        transactionJson.put("postingDate", rs.getDate("postingDate").toString());
+        transactionJson.put("productBankRef", rs.getString("productBankRef"));
+        transactionJson.put("specificSymbol", rs.getString("specificSymbol"));
+        transactionJson.put("statementNumber", rs.getString("statementNumber"));
+        transactionJson.put("statementPeriod", rs.getString("statementPeriod"));
+        transactionJson.put("transactionId", rs.getString("transactionId"));
+        transactionJson.put("transactionType", rs.getString("transactionTypeStr"));
+        transactionJson.put("transactionTypeCode", rs.getInt("transactionTypeCode"));
+        transactionJson.put("variableSymbol", rs.getString("variableSymbol"));
+
+        return transactionJson;
+    }
+
+    /**
+     * Metoda pro získání souhrnu transakcí podle čísla účtu.
+     * Souhrn obsahuje počet a součet částek transakcí pro každou měnu a směr platby.
+     * @param accountNumber - Číslo účtu
+     * @return souhrn transakcí podle čísla účtu
+     */
+    public String getTransactionsSummaryByAccountNumber(String accountNumber) {
+        JsonArray totals = null;
+        HotAccountStore hotAccountStore = HotAccountStore.forVertx(vertx);
+        if (hotAccountStore.registerRead(accountNumber) && loadHotAccount(hotAccountStore, accountNumber)) {
+            totals = hotAccountStore.summarize(accountNumber);
+        }
+
+        if (totals == null) {
+            totals = new JsonArray();
+            try (Connection connection = dataSourceRouter().getReadConnection(sessionId);
+                 PreparedStatement pstmt = connection.prepareStatement(readResourceStr("select_transactions_summary.sql"))) {
+                pstmt.setString(1, accountNumber);
+                ResultSet rs = pstmt.executeQuery();
+                while (rs.next()) {
+                    totals.add(new JsonObject()
+                            .put("currency", rs.getString("currency"))
+                            .put("creditDebitIndicator", rs.getString("creditDebitIndicator"))
+                            .put("count", rs.getLong("transactionCount"))
+                            .put("amount", rs.getBigDecimal("amountSum")));
+                }
+            } catch (SQLException | IOException e) {
+                JsonObject errorJson = new JsonObject();
+                errorJson.put("error", "Nepodařilo se vytvořit souhrn transakcí podle čísla účtu.");
+                errorJson.put("message", e.getMessage());
+                return errorJson.encodePrettily();
+            }
+        }
+
+        long transactionCount = 0;
+        for (int i = 0; i < totals.size(); i++) {
+            transactionCount += totals.getJsonObject(i).getLong("count");
+        }
+        JsonObject summaryJson = new JsonObject();
+        summaryJson.put("accountNumber", accountNumber);
+        summaryJson.put("transactionCount", transactionCount);
+        summaryJson.put("totals", totals);
+        return summaryJson.encodePrettily();
+    }
+
+    /**
+     * Metoda pro export výpisu a všech jeho transakcí do kanálu.
+     * Transakce se čtou kurzorem pouze vpřed a zapisují se průběžně, takže spotřeba paměti
+     * nezávisí na počtu transakcí ve výpisu.
+     * @param statementId - identifikátor výpisu
+     * @param format - formát exportu ("csv" nebo "xml")
+     * @param channel - cílový kanál
+     * @return false, pokud výpis neexistuje
+     * @throws SQLException - chyba při čtení z databáze
+     * @throws IOException - chyba při čtení zdroje nebo zápisu do kanálu
+     */
+    public boolean exportStatement(long statementId, String format, WritableByteChannel channel) throws SQLException, IOException {
+        StatementExporter exporter = new StatementExporter(format, channel);
+        try (Connection connection = dataSourceRouter().getReadConnection(sessionId)) {
+            try (PreparedStatement pstmt = connection.prepareStatement("SELECT number, period, description FROM [statement] WHERE statementId = ?")) {
+                pstmt.setLong(1, statementId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (!rs.next()) {
+                        return false;
+                    }
+                    exporter.writeHeader(statementId, rs.getString("number"), rs.getString("period"), rs.getString("description"));
+                }
+            }
+            try (PreparedStatement pstmt = connection.prepareStatement(readResourceStr("select_statement_transactions.sql"),
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                pstmt.setFetchSize(EXPORT_FETCH_SIZE);
+                pstmt.setLong(1, statementId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        exporter.writeTransaction(rs);
+                    }
+                }
+            }
+        }
+        exporter.finish();
+        return true;
+    }
+
+    /**
+     * Metoda pro export výpisu do souboru.
+     * Soubor se otevře až při prvním zápisu, pokud výpis neexistuje, soubor se nevytvoří ani nezmění.
+     * @param statementId - identifikátor výpisu
+     * @param format - formát exportu ("csv" nebo "xml")
+     * @param path - cesta k cílovému souboru
+     * @return false, pokud výpis neexistuje
+     * @throws SQLException - chyba při čtení z databáze
+     * @throws IOException - chyba při zápisu souboru
+     */
+    public boolean exportStatementToFile(long statementId, String format, Path path) throws SQLException, IOException {
+        try (LazyFileChannel channel = new LazyFileChannel(path)) {
+            return exportStatement(statementId, format, channel);
+        }
+    }
+
+    /**
+     * Kanál souboru, který soubor otevře (a případně zkrátí) až při prvním zápisu.
+     */
+    private static final class LazyFileChannel implements WritableByteChannel {
+        private final Path path;
+        private FileChannel channel;
+        private boolean open = true;
+
+        private LazyFileChannel(Path path) {
+            this.path = path;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            if (channel == null) {
+                channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            }
+            return channel.write(src);
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void close() throws IOException {
+            open = false;
+            if (channel != null) {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Metoda pro sestavení vyhledávacího indexu transakcí z databáze.
+     * Transakce se čtou kurzorem pouze vpřed. Pokud se index již sestavuje nebo je sestaven, metoda nic nedělá.
+     * @return výsledek sestavení indexu
+     * @throws SQLException - chyba při čtení z databáze, index zůstane nesestavený
+     * @throws IOException - chyba při čtení zdroje, index zůstane nesestavený
+     */
+    public String buildSearchIndex() throws SQLException, IOException {
+        DataSourceRouter router = dataSourceRouter();
+        TransactionSearchIndex searchIndex = TransactionSearchIndex.forVertx(vertx);
+        if (!searchIndex.startBuilding()) {
+            return "Vyhledávací index se již sestavuje nebo je sestaven.";
+        }
+        long indexed = 0;
+        try (Connection connection = router.getPrimaryPool().getConnection()) {
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery("SELECT accountId, name FROM [account]")) {
+                while (rs.next()) {
+                    searchIndex.addAccount(rs.getLong("accountId"), rs.getString("name"));
+                }
+            }
+            try (PreparedStatement pstmt = connection.prepareStatement(readResourceStr("select_search_index.sql"),
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                pstmt.setFetchSize(EXPORT_FETCH_SIZE);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        searchIndex.addTransaction(rs.getLong("trxId"), rs.getString("ownAccountNumber"), rs.getLong("counterPartyAccount"),
+                                rs.getString("variableSymbol"), rs.getString("specificSymbol"),
+                                rs.getString("detail1"), rs.getString("detail2"), rs.getString("detail3"), rs.getString("detail4"));
+                        indexed++;
+                    }
+                }
+            }
+            searchIndex.finishBuilding(true);
+            String result = String.format("Vyhledávací index obsahuje %d transakcí a %d termínů, odhad obsazené paměti je %d kB.",
+                    indexed, searchIndex.termCount(), searchIndex.estimatedBytes() / 1024);
+            logger.info(result);
+            return result;
+        } catch (SQLException | IOException | RuntimeException e) {
+            searchIndex.finishBuilding(false);
+            logger.error("Nepodařilo se sestavit vyhledávací index. Chyba: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Metoda pro naplnění filtru duplicit klíči nejnovějších transakcí v databázi.
+     * Načte se nejvýše "recent_keys" klíčů, takže opakované dávky odeslané po restartu aplikace
+     * se zodpoví bez dotazu do databáze.
+     * @return výsledek naplnění filtru
+     * @throws SQLException - chyba při čtení z databáze
+     * @throws IOException - chyba při čtení zdroje
+     */
+    public String loadDuplicateFilter() throws SQLException, IOException {
+        DuplicateFilter duplicateFilter = DuplicateFilter.forVertx(vertx);
+        List<String> keys = new ArrayList<>();
+        try (Connection connection = dataSourceRouter().getPrimaryPool().getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(readResourceStr("select_recent_transaction_keys.sql"))) {
+            pstmt.setInt(1, duplicateFilter.getRecentKeysLimit());
+            pstmt.setFetchSize(EXPORT_FETCH_SIZE);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    keys.add(DuplicateFilter.key(rs.getString("transactionId"), rs.getString("bankref")));
+                }
+            }
+        }
+        for (int i = keys.size() - 1; i >= 0; i--) {
+            duplicateFilter.remember(keys.get(i));
+        }
+        return "Filtr duplicit obsahuje " + keys.size() + " nejnovějších transakcí.";
+    }
+
+    /**
+     * Metoda pro vyhledání transakcí pomocí vyhledávacího indexu.
+     * Nalezené transakce se načtou z databáze podle trxId, od nejnovější.
+     * @param criteria - kritéria vyhledávání (viz TransactionSearchIndex.search)
+     * @param limit - maximální počet výsledků
+     * @return nalezené transakce
+     */
+    public String searchTransactions(JsonObject criteria, int limit) {
+        long[] trxIds = TransactionSearchIndex.forVertx(vertx).search(criteria, limit);
+        JsonArray transactionsArray = new JsonArray();
+        if (trxIds.length == 0) {
+            return transactionsArray.encodePrettily();
+        }
+        String placeholders = String.join(", ", Collections.nCopies(trxIds.length, "?"));
+        try (Connection connection = dataSourceRouter().getReadConnection(sessionId);
+             PreparedStatement pstmt = connection.prepareStatement(String.format(readResourceStr("select_transactions_by_ids.sql"), placeholders))) {
+            for (int i = 0; i < trxIds.length; i++) {
+                pstmt.setLong(i + 1, trxIds[i]);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    transactionsArray.add(transactionToJson(rs));
+                }
+            }
+            return transactionsArray.encodePrettily();
+        } catch (SQLException | IOException e) {
+            JsonObject errorJson = new JsonObject();
+            errorJson.put("error", "Nepodařilo se vyhledat transakce.");
+            errorJson.put("message", e.getMessage());
+            return errorJson.encodePrettily();
+        }
+    }
 }
@@ -0,0 +1,173 @@
+package com.mytest.db;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Filtr duplicitních transakcí pro idempotentní příjem dat.
+ * Omezená LRU mapa posledních klíčů (transactionId, bankref) přesně rozpozná nedávno zapsané
+ * transakce, takže opakované dávky se zodpoví bez dotazu do databáze. O ostatních klíčích
+ * rozhoduje unikátní klíč v databázi. Při startu aplikace se mapa naplní klíči nejnovějších transakcí.
+ * Filtr dále uchovává výsledky požadavků podle hlavičky Idempotency-Key spolu s otiskem těla požadavku,
+ * aby bylo možné odhalit opakované použití klíče s jiným tělem.
+ */
+public class DuplicateFilter {
+    private static final Map<Vertx, DuplicateFilter> filters = new ConcurrentHashMap<>();
+
+    private final int recentKeysLimit;
+    private final LruMap<String> recentKeys;
+    private final LruMap<IdempotentResult> idempotencyKeys;
+
+    /**
+     * Konstruktor třídy DuplicateFilter.
+     * @param config - konfigurace příjmu transakcí (sekce "ingestion" konfiguračního souboru), může být null
+     */
+    public DuplicateFilter(JsonObject config) {
+        JsonObject ingestionConfig = config == null ? new JsonObject() : config;
+        this.recentKeysLimit = Math.max(1, ingestionConfig.getInteger("recent_keys", 100000));
+        this.recentKeys = new LruMap<>(recentKeysLimit);
+        this.idempotencyKeys = new LruMap<>(ingestionConfig.getInteger("idempotency_keys", 10000));
+    }
+
+    /**
+     * Metoda vrací sdílenou instanci filtru pro danou instanci Vertx.
+     * @param vertx instance třídy Vertx
+     * @return instance filtru
+     */
+    public static DuplicateFilter forVertx(Vertx vertx) {
+        return filters.computeIfAbsent(vertx, v ->
+                new DuplicateFilter((JsonObject) v.sharedData().getLocalMap("app-config").get("ingestionConfig")));
+    }
+
+    /**
+     * Metoda pro zrušení sdílené instance filtru pro danou instanci Vertx.
+     * @param vertx instance třídy Vertx
+     */
+    public static void shutdown(Vertx vertx) {
+        filters.remove(vertx);
+    }
+
+    /**
+     * Metoda sestaví klíč transakce z transactionId a bankref.
+     * Délka transactionId je součástí klíče, takže různé dvojice nemohou dát stejný klíč.
+     * @param transactionId - identifikátor transakce
+     * @param bankref - bankovní reference
+     * @return klíč transakce
+     */
+    public static String key(String transactionId, String bankref) {
+        return transactionId.length() + ":" + transactionId + "|" + bankref;
+    }
+
+    /**
+     * Metoda vrací otisk těla požadavku (SHA-256 v kódování Base64).
+     * @param body - tělo požadavku
+     * @return otisk těla požadavku
+     */
+    public static String requestHash(String body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Metoda vrací maximální počet klíčů posledních transakcí, které filtr uchovává.
+     * @return maximální počet klíčů
+     */
+    public int getRecentKeysLimit() {
+        return recentKeysLimit;
+    }
+
+    /**
+     * Metoda pro zjištění, zda byla transakce s daným klíčem nedávno zapsána.
+     * @param key - klíč transakce
+     * @return true, pokud je klíč mezi posledními zapsanými
+     */
+    public synchronized boolean isRecent(String key) {
+        return recentKeys.get(key) != null;
+    }
+
+    /**
+     * Metoda pro zaznamenání zapsané transakce.
+     * @param key - klíč transakce
+     */
+    public synchronized void remember(String key) {
+        recentKeys.put(key, key);
+    }
+
+    /**
+     * Metoda vrací uložený výsledek požadavku s danou hlavičkou Idempotency-Key.
+     * @param idempotencyKey - hodnota hlavičky Idempotency-Key
+     * @return výsledek původního požadavku nebo null
+     */
+    public synchronized IdempotentResult idempotentResult(String idempotencyKey) {
+        return idempotencyKeys.get(idempotencyKey);
+    }
+
+    /**
+     * Metoda pro uložení výsledku požadavku s danou hlavičkou Idempotency-Key.
+     * @param idempotencyKey - hodnota hlavičky Idempotency-Key
+     * @param requestHash - otisk těla požadavku (viz requestHash)
+     * @param result - výsledek požadavku
+     */
+    public synchronized void rememberIdempotent(String idempotencyKey, String requestHash, String result) {
+        idempotencyKeys.put(idempotencyKey, new IdempotentResult(requestHash, result));
+    }
+
+    /**
+     * Uložený výsledek požadavku s hlavičkou Idempotency-Key a otisk jeho těla.
+     */
+    public static final class IdempotentResult {
+        private final String requestHash;
+        private final String result;
+
+        private IdempotentResult(String requestHash, String result) {
+            this.requestHash = requestHash;
+            this.result = result;
+        }
+
+        /**
+         * Metoda pro ověření, zda byl výsledek uložen pro požadavek se stejným tělem.
+         * @param requestHash - otisk těla aktuálního požadavku
+         * @return true, pokud se otisky shodují
+         */
+        public boolean matches(String requestHash) {
+            return this.requestHash.equals(requestHash);
+        }
+
+        /**
+         * Metoda vrací výsledek původního požadavku.
+         * @return výsledek požadavku
+         */
+        public String getResult() {
+            return result;
+        }
+    }
+
+    /**
+     * LRU mapa s omezeným počtem položek.
+     */
+    private static final class LruMap<V> extends LinkedHashMap<String, V> {
+        private final int maxSize;
+
+        private LruMap(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = Math.max(1, maxSize);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+            return size() > maxSize;
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package com.mytest.db;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Paměťová vrstva pro často čtené ("horké") účty.
+ * Transakce horkých účtů se drží ve sloupcové podobě (TransactionColumns), výpisy a souhrny se
+ * sestavují přímo z polí primitivních hodnot bez dotazu do databáze.
+ * Účet je horký, pokud je uveden v konfiguraci nebo byl přečten alespoň "promote_after_reads" krát.
+ * Celková velikost je omezena hodnotou "memory_budget_bytes", při jejím překročení se uvolní
+ * nejdéle nepoužitý účet.
+ * Dotazy do databáze se provádějí mimo zámek úložiště, pod zámkem se pouze zveřejní načtená data.
+ */
+public class HotAccountStore {
+    private static final Logger logger = LoggerFactory.getLogger(HotAccountStore.class);
+    private static final Map<Vertx, HotAccountStore> stores = new ConcurrentHashMap<>();
+    private static final int MAX_TRACKED_ACCOUNTS = 10000;
+
+    private final boolean enabled;
+    private final Set<String> configuredAccounts = new HashSet<>();
+    private final int promoteAfterReads;
+    private final long memoryBudgetBytes;
+    private final Dictionaries dictionaries = new Dictionaries();
+    private final LinkedHashMap<String, TransactionColumns> accounts = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Integer> readCounts = new HashMap<>();
+    private final Set<String> oversizedAccounts = new HashSet<>();
+    private final Map<String, Long> loadVersions = new HashMap<>();
+    private long usedBytes = 0;
+
+    /**
+     * Konstruktor třídy HotAccountStore.
+     * @param config - konfigurace horkých účtů (sekce "hot_accounts" konfiguračního souboru), může být null
+     */
+    public HotAccountStore(JsonObject config) {
+        JsonObject hotConfig = config == null ? new JsonObject() : config;
+        this.enabled = hotConfig.getBoolean("enabled", false);
+        this.promoteAfterReads = hotConfig.getInteger("promote_after_reads", 0);
+        this.memoryBudgetBytes = hotConfig.getLong("memory_budget_bytes", 64L * 1024 * 1024);
+        JsonArray accountsConfig = hotConfig.getJsonArray("accounts", new JsonArray());
+        for (int i = 0; i < accountsConfig.size(); i++) {
+            configuredAccounts.add(accountsConfig.getString(i));
+        }
+    }
+
+    /**
+     * Metoda vrací sdílenou instanci úložiště pro danou instanci Vertx.
+     * @param vertx instance třídy Vertx
+     * @return instance úložiště
+     */
+    public static HotAccountStore forVertx(Vertx vertx) {
+        return stores.computeIfAbsent(vertx, v ->
+                new HotAccountStore((JsonObject) v.sharedData().getLocalMap("app-config").get("hotAccountsConfig")));
+    }
+
+    /**
+     * Metoda pro zrušení sdílené instance úložiště pro danou instanci Vertx.
+     * @param vertx instance třídy Vertx
+     */
+    public static void shutdown(Vertx vertx) {
+        stores.remove(vertx);
+    }
+
+    /**
+     * Metoda zaznamená čtení účtu a rozhodne, zda se má účet obsluhovat z paměti.
+     * @param accountNumber - číslo účtu
+     * @return true, pokud je účet horký
+     */
+    public synchronized boolean registerRead(String accountNumber) {
+        if (!enabled || accountNumber == null || oversizedAccounts.contains(accountNumber)) {
+            return false;
+        }
+        if (accounts.containsKey(accountNumber) || configuredAccounts.contains(accountNumber)) {
+            return true;
+        }
+        if (promoteAfterReads <= 0) {
+            return false;
+        }
+        if (readCounts.size() >= MAX_TRACKED_ACCOUNTS) {
+            readCounts.clear();
+        }
+        int reads = readCounts.merge(accountNumber, 1, Integer::sum);
+        if (reads >= promoteAfterReads) {
+            readCounts.remove(accountNumber);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Metoda pro zjištění, zda jsou transakce účtu načteny v paměti.
+     * @param accountNumber - číslo účtu
+     * @return true, pokud je účet načten
+     */
+    public synchronized boolean isLoaded(String accountNumber) {
+        return accounts.containsKey(accountNumber);
+    }
+
+    /**
+     * Metoda pro načtení všech transakcí účtu do paměti.
+     * Pokud by účet sám překročil paměťový limit, nenačte se a dále se obsluhuje z databáze.
+     * Pokud byla během načítání pro účet zapsána nová transakce, načtená data se zahodí a účet se načte při dalším čtení.
+     * @param accountNumber - číslo účtu
+     * @param connection - připojení k databázi
+     * @param selectSql - dotaz select_transactions.sql
+     * @return true, pokud byl účet načten
+     * @throws SQLException - chyba při čtení z databáze
+     */
+    public boolean load(String accountNumber, Connection connection, String selectSql) throws SQLException {
+        long startVersion;
+        synchronized (this) {
+            startVersion = loadVersions.computeIfAbsent(accountNumber, a -> 0L);
+        }
+        TransactionColumns columns = new TransactionColumns(dictionaries);
+        try (PreparedStatement pstmt = connection.prepareStatement(selectSql)) {
+            pstmt.setString(1, accountNumber);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    columns.appendRow(rs);
+                    if (columns.estimatedBytes() > memoryBudgetBytes) {
+                        synchronized (this) {
+                            loadVersions.remove(accountNumber);
+                            markOversized(accountNumber);
+                        }
+                        return false;
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            synchronized (this) {
+                loadVersions.remove(accountNumber);
+            }
+            throw e;
+        }
+        synchronized (this) {
+            Long currentVersion = loadVersions.remove(accountNumber);
+            if (currentVersion == null || currentVersion != startVersion) {
+                return false;
+            }
+            TransactionColumns previous = accounts.put(accountNumber, columns);
+            if (previous != null) {
+                usedBytes -= previous.estimatedBytes();
+            }
+            usedBytes += columns.estimatedBytes();
+            evictOverBudget(accountNumber);
+        }
+        logger.info(String.format("Účet %s byl načten do paměti (%d transakcí).", accountNumber, columns.size()));
+        return true;
+    }
+
+    /**
+     * Metoda pro doplnění nově vytvořené transakce do paměti, pokud je její účet načten.
+     * @param accountNumber - číslo účtu
+     * @param trxId - identifikátor vytvořené transakce
+     * @param connection - připojení k databázi, do které byla transakce zapsána
+     * @param selectByIdSql - dotaz select_transaction_by_id.sql
+     * @throws SQLException - chyba při čtení z databáze
+     */
+    public void onTransactionCreated(String accountNumber, long trxId, Connection connection, String selectByIdSql) throws SQLException {
+        synchronized (this) {
+            loadVersions.computeIfPresent(accountNumber, (a, version) -> version + 1);
+            if (!accounts.containsKey(accountNumber)) {
+                return;
+            }
+        }
+        TransactionColumns created = new TransactionColumns(dictionaries);
+        try (PreparedStatement pstmt = connection.prepareStatement(selectByIdSql)) {
+            pstmt.setLong(1, trxId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    created.appendRow(rs);
+                }
+            }
+        } catch (SQLException e) {
+            invalidate(accountNumber);
+            throw e;
+        }
+        synchronized (this) {
+            TransactionColumns columns = accounts.get(accountNumber);
+            if (columns == null || columns.containsTrxId(trxId)) {
+                return;
+            }
+            columns.appendAll(created);
+            usedBytes += created.estimatedBytes();
+            if (columns.estimatedBytes() > memoryBudgetBytes) {
+                invalidate(accountNumber);
+                markOversized(accountNumber);
+                return;
+            }
+            evictOverBudget(accountNumber);
+        }
+    }
+
+    /**
+     * Metoda pro odstranění účtu z paměti, příští čtení jej načte znovu.
+     * @param accountNumber - číslo účtu
+     */
+    public synchronized void invalidate(String accountNumber) {
+        loadVersions.computeIfPresent(accountNumber, (a, version) -> version + 1);
+        TransactionColumns removed = accounts.remove(accountNumber);
+        if (removed != null) {
+            usedBytes -= removed.estimatedBytes();
+        }
+    }
+
+    /**
+     * Metoda vrací transakce účtu z paměti.
+     * @param accountNumber - číslo účtu
+     * @return transakce účtu ve formátu JSON nebo null, pokud účet není načten
+     */
+    public synchronized String listTransactions(String accountNumber) {
+        TransactionColumns columns = accounts.get(accountNumber);
+        return columns == null ? null : columns.toJson(accountNumber);
+    }
+
+    /**
+     * Metoda vrací souhrn transakcí účtu z paměti.
+     * @param accountNumber - číslo účtu
+     * @return skupiny souhrnu nebo null, pokud účet není načten
+     */
+    public synchronized JsonArray summarize(String accountNumber) {
+        TransactionColumns columns = accounts.get(accountNumber);
+        return columns == null ? null : columns.summarize();
+    }
+
+    /**
+     * Metoda vrací odhad paměti obsazené načtenými účty v bajtech.
+     * @return odhad obsazené paměti
+     */
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    private void evictOverBudget(String keepAccount) {
+        Iterator<Map.Entry<String, TransactionColumns>> iterator = accounts.entrySet().iterator();
+        while (usedBytes > memoryBudgetBytes && iterator.hasNext()) {
+            Map.Entry<String, TransactionColumns> eldest = iterator.next();
+            if (eldest.getKey().equals(keepAccount)) {
+                continue;
+            }
+            usedBytes -= eldest.getValue().estimatedBytes();
+            iterator.remove();
+            logger.info(String.format("Účet %s byl uvolněn z paměti.", eldest.getKey()));
+        }
+    }
+
+    private void markOversized(String accountNumber) {
+        if (oversizedAccounts.size() >= MAX_TRACKED_ACCOUNTS) {
+            oversizedAccounts.clear();
+        }
+        oversizedAccounts.add(accountNumber);
+        logger.warn(String.format("Účet %s překračuje paměťový limit a bude obsluhován z databáze.", accountNumber));
+    }
+
+    /**
+     * Slovníky sdílené všemi načtenými účty.
+     * Slovníky jsou vláknově bezpečné, protože se plní i při načítání účtů mimo zámek úložiště.
+     */
+    static final class Dictionaries {
+        final StringDictionary strings = new StringDictionary();
+        final ReferenceDictionary counterParties = new ReferenceDictionary();
+        final ReferenceDictionary transactionTypes = new ReferenceDictionary();
+        final ReferenceDictionary statements = new ReferenceDictionary();
+    }
+
+    /**
+     * Slovník převádějící opakující se řetězce na celočíselné kódy. Hodnota null má kód -1.
+     */
+    static final class StringDictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        synchronized int encode(String value) {
+            if (value == null) {
+                return -1;
+            }
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                values.add(value);
+                codes.put(value, code);
+            }
+            return code;
+        }
+
+        synchronized String decode(int code) {
+            return code < 0 ? null : values.get(code);
+        }
+    }
+
+    /**
+     * Slovník převádějící databázový identifikátor odkazovaného záznamu na kód a jeho zobrazované hodnoty.
+     */
+    static final class ReferenceDictionary {
+        private final Map<Long, Integer> codes = new HashMap<>();
+        private final List<String[]> values = new ArrayList<>();
+
+        synchronized int encode(long id, String... fields) {
+            Integer code = codes.get(id);
+            if (code == null) {
+                code = values.size();
+                values.add(fields);
+                codes.put(id, code);
+            } else {
+                values.set(code, fields);
+            }
+            return code;
+        }
+
+        synchronized String[] decode(int code) {
+            return values.get(code);
+        }
+    }
+}
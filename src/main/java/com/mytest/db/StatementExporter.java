@@ -0,0 +1,271 @@
+package com.mytest.db;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Třída pro zápis exportu výpisu do kanálu NIO.
+ * Podporuje formát CSV a zjednodušený XML formát podle camt.053.
+ * Data se zapisují po řádcích přes vyrovnávací paměť pevné velikosti, takže spotřeba paměti
+ * nezávisí na počtu transakcí ve výpisu.
+ */
+public class StatementExporter {
+    public static final String FORMAT_CSV = "csv";
+    public static final String FORMAT_XML = "xml";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String CSV_HEADER = "trxId,bookingDate,postingDate,amount,currency,creditDebitIndicator,"
+            + "counterPartyAccountName,counterPartyAccountNumber,counterPartyBankCode,variableSymbol,specificSymbol,"
+            + "constantSymbol,transactionType,transactionId,bankref,detail1,detail2,detail3,detail4\r\n";
+
+    private final String format;
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final StringBuilder line = new StringBuilder(512);
+
+    /**
+     * Konstruktor třídy StatementExporter.
+     * @param format - formát exportu ("csv" nebo "xml")
+     * @param channel - cílový kanál, např. odpověď HTTP nebo FileChannel
+     */
+    public StatementExporter(String format, WritableByteChannel channel) {
+        if (!isSupportedFormat(format)) {
+            throw new IllegalArgumentException("Nepodporovaný formát exportu: " + format);
+        }
+        this.format = format;
+        this.channel = channel;
+    }
+
+    /**
+     * Metoda pro ověření, zda je formát exportu podporován.
+     * @param format - formát exportu
+     * @return true, pokud je formát podporován
+     */
+    public static boolean isSupportedFormat(String format) {
+        return FORMAT_CSV.equals(format) || FORMAT_XML.equals(format);
+    }
+
+    /**
+     * Metoda vrací typ obsahu pro daný formát exportu.
+     * @param format - formát exportu
+     * @return hodnota hlavičky Content-Type
+     */
+    public static String contentType(String format) {
+        return FORMAT_XML.equals(format) ? "application/xml; charset=UTF-8" : "text/csv; charset=UTF-8";
+    }
+
+    /**
+     * Metoda pro zápis hlavičky exportu.
+     * @param statementId - identifikátor výpisu
+     * @param number - číslo výpisu
+     * @param period - období výpisu
+     * @param description - popis výpisu
+     * @throws IOException - chyba při zápisu do kanálu
+     */
+    public void writeHeader(long statementId, String number, String period, String description) throws IOException {
+        line.setLength(0);
+        if (FORMAT_CSV.equals(format)) {
+            line.append(CSV_HEADER);
+        } else {
+            line.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n")
+                    .append("<Document xmlns=\"urn:iso:std:iso:20022:tech:xsd:camt.053.001.02\">\n")
+                    .append("<BkToCstmrStmt>\n<GrpHdr><MsgId>STMT-").append(statementId).append("</MsgId><CreDtTm>")
+                    .append(LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)).append("</CreDtTm></GrpHdr>\n")
+                    .append("<Stmt>\n<Id>");
+            appendXml(number);
+            line.append("</Id>\n<AddtlStmtInf>");
+            appendXml(period);
+            if (description != null && !description.isEmpty()) {
+                line.append(" - ");
+                appendXml(description);
+            }
+            line.append("</AddtlStmtInf>\n");
+        }
+        writeLine();
+    }
+
+    /**
+     * Metoda pro zápis jedné transakce z výsledku dotazu select_statement_transactions.sql.
+     * @param rs - výsledek dotazu nastavený na aktuální řádek
+     * @throws SQLException - chyba při čtení výsledku
+     * @throws IOException - chyba při zápisu do kanálu
+     */
+    public void writeTransaction(ResultSet rs) throws SQLException, IOException {
+        line.setLength(0);
+        if (FORMAT_CSV.equals(format)) {
+            appendCsvRow(rs);
+        } else {
+            appendXmlEntry(rs);
+        }
+        writeLine();
+    }
+
+    /**
+     * Metoda pro zápis zakončení exportu a vyprázdnění vyrovnávací paměti do kanálu.
+     * @throws IOException - chyba při zápisu do kanálu
+     */
+    public void finish() throws IOException {
+        if (FORMAT_XML.equals(format)) {
+            line.setLength(0);
+            line.append("</Stmt>\n</BkToCstmrStmt>\n</Document>\n");
+            writeLine();
+        }
+        flush();
+    }
+
+    private void appendCsvRow(ResultSet rs) throws SQLException {
+        appendCsv(String.valueOf(rs.getLong("trxId"))).append(',');
+        appendCsv(dateStr(rs.getDate("bookingDate"))).append(',');
+        appendCsv(dateStr(rs.getDate("postingDate"))).append(',');
+        appendCsv(amountStr(rs.getBigDecimal("amount"))).append(',');
+        appendCsv(rs.getString("currency")).append(',');
+        appendCsv(rs.getString("creditDebitIndicator")).append(',');
+        appendCsv(rs.getString("counterPartyAccountName")).append(',');
+        appendCsv(rs.getString("counterPartyAccountNumber")).append(',');
+        appendCsv(rs.getString("counterPartyAccountCode")).append(',');
+        appendCsv(rs.getString("variableSymbol")).append(',');
+        appendCsv(rs.getString("specificSymbol")).append(',');
+        appendCsv(rs.getString("constantSymbol")).append(',');
+        appendCsv(rs.getString("transactionTypeStr")).append(',');
+        appendCsv(rs.getString("transactionId")).append(',');
+        appendCsv(rs.getString("bankref")).append(',');
+        appendCsv(rs.getString("detail1")).append(',');
+        appendCsv(rs.getString("detail2")).append(',');
+        appendCsv(rs.getString("detail3")).append(',');
+        appendCsv(rs.getString("detail4")).append("\r\n");
+    }
+
+    private void appendXmlEntry(ResultSet rs) throws SQLException {
+        boolean credit = "CRDT".equals(rs.getString("creditDebitIndicator"));
+        String party = credit ? "Dbtr" : "Cdtr";
+
+        line.append("<Ntry>\n<NtryRef>");
+        appendXml(rs.getString("transactionId"));
+        line.append("</NtryRef>\n<Amt Ccy=\"");
+        appendXml(rs.getString("currency"));
+        line.append("\">").append(amountStr(rs.getBigDecimal("amount"))).append("</Amt>\n<CdtDbtInd>");
+        appendXml(rs.getString("creditDebitIndicator"));
+        line.append("</CdtDbtInd>\n<Sts>BOOK</Sts>\n");
+        String bookingDate = dateStr(rs.getDate("bookingDate"));
+        if (bookingDate != null) {
+            line.append("<BookgDt><Dt>").append(bookingDate).append("</Dt></BookgDt>\n");
+        }
+        String postingDate = dateStr(rs.getDate("postingDate"));
+        if (postingDate != null) {
+            line.append("<ValDt><Dt>").append(postingDate).append("</Dt></ValDt>\n");
+        }
+        line.append("<AcctSvcrRef>");
+        appendXml(rs.getString("bankref"));
+        line.append("</AcctSvcrRef>\n<BkTxCd><Prtry><Cd>").append(rs.getInt("transactionTypeCode")).append("</Cd><Issr>");
+        appendXml(rs.getString("transactionTypeStr"));
+        line.append("</Issr></Prtry></BkTxCd>\n<NtryDtls><TxDtls>\n<Refs><EndToEndId>");
+        appendSymbol("VS", rs.getString("variableSymbol"));
+        appendSymbol("SS", rs.getString("specificSymbol"));
+        appendSymbol("KS", rs.getString("constantSymbol"));
+        line.append("</EndToEndId></Refs>\n<RltdPties><").append(party).append("><Nm>");
+        appendXml(rs.getString("counterPartyAccountName"));
+        line.append("</Nm></").append(party).append("><").append(party).append("Acct><Id><Othr><Id>");
+        appendXml(rs.getString("counterPartyAccountNumber"));
+        line.append('/');
+        appendXml(rs.getString("counterPartyAccountCode"));
+        line.append("</Id></Othr></Id></").append(party).append("Acct></RltdPties>\n<RmtInf>");
+        for (int i = 1; i <= 4; i++) {
+            String detail = rs.getString("detail" + i);
+            if (detail != null) {
+                line.append("<Ustrd>");
+                appendXml(detail);
+                line.append("</Ustrd>");
+            }
+        }
+        line.append("</RmtInf>\n</TxDtls></NtryDtls>\n</Ntry>\n");
+    }
+
+    private void appendSymbol(String prefix, String value) {
+        if (value != null && !value.isEmpty()) {
+            line.append('/').append(prefix);
+            appendXml(value);
+        }
+    }
+
+    private StringBuilder appendCsv(String value) {
+        if (value == null) {
+            return line;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return line.append(value);
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        return line.append('"');
+    }
+
+    private void appendXml(String value) {
+        if (value == null) {
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '<':
+                    line.append("&lt;");
+                    break;
+                case '>':
+                    line.append("&gt;");
+                    break;
+                case '&':
+                    line.append("&amp;");
+                    break;
+                case '"':
+                    line.append("&quot;");
+                    break;
+                case '\'':
+                    line.append("&apos;");
+                    break;
+                default:
+                    line.append(c);
+            }
+        }
+    }
+
+    private void writeLine() throws IOException {
+        byte[] bytes = line.toString().getBytes(StandardCharsets.UTF_8);
+        int offset = 0;
+        while (offset < bytes.length) {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            int length = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, length);
+            offset += length;
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static String dateStr(Date date) {
+        return date == null ? null : date.toString();
+    }
+
+    private static String amountStr(BigDecimal amount) {
+        return amount == null ? "" : amount.toPlainString();
+    }
+}
@@ -0,0 +1,350 @@
+package com.mytest.db;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Sloupcové uložení transakcí jednoho účtu v paměti.
+ * Částky jsou uloženy v haléřích jako long, data jako počet dní od epochy a opakující se
+ * hodnoty (měna, typ, protistrana, výpis) jako kódy do slovníků třídy HotAccountStore.
+ * Třída není vláknově bezpečná. Instanci plní jedno vlákno a po zveřejnění v HotAccountStore
+ * se k ní přistupuje pouze pod zámkem úložiště.
+ */
+class TransactionColumns {
+    private static final int NULL_DATE = Integer.MIN_VALUE;
+    private static final int AMOUNT_SCALE = 2;
+    private static final long AMOUNT_DIVISOR = 100;
+    private static final int ESTIMATED_ROW_CHARS = 512;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final int DETAIL_COUNT = 4;
+    private static final int FIXED_ROW_BYTES = 2 * Long.BYTES + 7 * Integer.BYTES + 10 * 8;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final HotAccountStore.Dictionaries dictionaries;
+    private int size = 0;
+    private long estimatedBytes = 0;
+    private long maxTrxId = Long.MIN_VALUE;
+
+    private long[] trxIds = new long[INITIAL_CAPACITY];
+    private long[] amounts = new long[INITIAL_CAPACITY];
+    private int[] currencies = new int[INITIAL_CAPACITY];
+    private int[] creditDebitIndicators = new int[INITIAL_CAPACITY];
+    private int[] bookingDays = new int[INITIAL_CAPACITY];
+    private int[] postingDays = new int[INITIAL_CAPACITY];
+    private int[] counterParties = new int[INITIAL_CAPACITY];
+    private int[] transactionTypes = new int[INITIAL_CAPACITY];
+    private int[] statements = new int[INITIAL_CAPACITY];
+    private String[] bankrefs = new String[INITIAL_CAPACITY];
+    private String[] ids = new String[INITIAL_CAPACITY];
+    private String[] transactionIds = new String[INITIAL_CAPACITY];
+    private String[] productBankRefs = new String[INITIAL_CAPACITY];
+    private String[] specificSymbols = new String[INITIAL_CAPACITY];
+    private String[] variableSymbols = new String[INITIAL_CAPACITY];
+    private String[] details = new String[INITIAL_CAPACITY * DETAIL_COUNT];
+
+    TransactionColumns(HotAccountStore.Dictionaries dictionaries) {
+        this.dictionaries = dictionaries;
+    }
+
+    /**
+     * Metoda pro přidání řádku z výsledku dotazu select_transactions.sql nebo select_transaction_by_id.sql.
+     * @param rs - výsledek dotazu nastavený na aktuální řádek
+     * @throws SQLException - chyba při čtení výsledku
+     */
+    void appendRow(ResultSet rs) throws SQLException {
+        ensureCapacity(size + 1);
+        int row = size;
+        trxIds[row] = rs.getLong("trxId");
+        maxTrxId = Math.max(maxTrxId, trxIds[row]);
+        amounts[row] = rs.getBigDecimal("amount").setScale(AMOUNT_SCALE).unscaledValue().longValueExact();
+        currencies[row] = dictionaries.strings.encode(rs.getString("currency"));
+        creditDebitIndicators[row] = dictionaries.strings.encode(rs.getString("creditDebitIndicator"));
+        bookingDays[row] = toEpochDay(rs.getDate("bookingDate"));
+        postingDays[row] = toEpochDay(rs.getDate("postingDate"));
+        counterParties[row] = dictionaries.counterParties.encode(rs.getLong("counterPartyAccount"),
+                rs.getString("counterPartyAccountName"),
+                String.format("%016d", rs.getLong("counterPartyAccountNumber")),
+                rs.getString("counterPartyAccountCode"));
+        transactionTypes[row] = dictionaries.transactionTypes.encode(rs.getLong("transactionType"),
+                rs.getString("transactionTypeStr"),
+                String.valueOf(rs.getInt("transactionTypeCode")));
+        statements[row] = dictionaries.statements.encode(rs.getLong("statement"),
+                rs.getString("statementNumber"),
+                rs.getString("statementPeriod"));
+
+        long rowBytes = FIXED_ROW_BYTES;
+        rowBytes += store(bankrefs, row, rs.getString("bankref"));
+        rowBytes += store(ids, row, rs.getString("id"));
+        rowBytes += store(transactionIds, row, rs.getString("transactionId"));
+        rowBytes += store(productBankRefs, row, rs.getString("productBankRef"));
+        rowBytes += store(specificSymbols, row, rs.getString("specificSymbol"));
+        rowBytes += store(variableSymbols, row, rs.getString("variableSymbol"));
+        for (int i = 0; i < DETAIL_COUNT; i++) {
+            rowBytes += store(details, row * DETAIL_COUNT + i, rs.getString("detail" + (i + 1)));
+        }
+        estimatedBytes += rowBytes;
+        size++;
+    }
+
+    /**
+     * Metoda vrací odhad obsazené paměti v bajtech.
+     * @return odhad obsazené paměti
+     */
+    long estimatedBytes() {
+        return estimatedBytes;
+    }
+
+    /**
+     * Metoda pro zjištění, zda je transakce s daným trxId již uložena.
+     * Identifikátor vyšší než dosud největší uložený se zodpoví bez procházení sloupce.
+     * @param trxId - identifikátor transakce
+     * @return true, pokud je transakce uložena
+     */
+    boolean containsTrxId(long trxId) {
+        if (trxId > maxTrxId) {
+            return false;
+        }
+        for (int row = size - 1; row >= 0; row--) {
+            if (trxIds[row] == trxId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Metoda pro připojení všech řádků jiné instance se stejnými slovníky.
+     * @param other - instance s řádky k připojení
+     */
+    void appendAll(TransactionColumns other) {
+        ensureCapacity(size + other.size);
+        for (int source = 0; source < other.size; source++) {
+            int row = size;
+            trxIds[row] = other.trxIds[source];
+            maxTrxId = Math.max(maxTrxId, trxIds[row]);
+            amounts[row] = other.amounts[source];
+            currencies[row] = other.currencies[source];
+            creditDebitIndicators[row] = other.creditDebitIndicators[source];
+            bookingDays[row] = other.bookingDays[source];
+            postingDays[row] = other.postingDays[source];
+            counterParties[row] = other.counterParties[source];
+            transactionTypes[row] = other.transactionTypes[source];
+            statements[row] = other.statements[source];
+            bankrefs[row] = other.bankrefs[source];
+            ids[row] = other.ids[source];
+            transactionIds[row] = other.transactionIds[source];
+            productBankRefs[row] = other.productBankRefs[source];
+            specificSymbols[row] = other.specificSymbols[source];
+            variableSymbols[row] = other.variableSymbols[source];
+            System.arraycopy(other.details, source * DETAIL_COUNT, details, row * DETAIL_COUNT, DETAIL_COUNT);
+            size++;
+        }
+        estimatedBytes += other.estimatedBytes;
+    }
+
+    /**
+     * Metoda pro sestavení výpisu transakcí ve stejném formátu JSON jako DbService.getTransactionsByAccountNumber.
+     * JSON se zapisuje přímo z polí primitivních hodnot, částky a data se formátují bez mezilehlých objektů.
+     * @param accountNumber - číslo účtu
+     * @return transakce účtu ve formátu JSON
+     */
+    String toJson(String accountNumber) {
+        StringBuilder json = new StringBuilder(64 + size * ESTIMATED_ROW_CHARS);
+        json.append('[');
+        for (int row = 0; row < size; row++) {
+            if (row > 0) json.append(',');
+            json.append("{\"amount\":{\"currency\":");
+            appendString(json, dictionaries.strings.decode(currencies[row]));
+            json.append(",\"value\":");
+            appendAmount(json, amounts[row]);
+            json.append("},\"bankref\":");
+            appendString(json, bankrefs[row]);
+            json.append(",\"bookingDate\":");
+            appendDate(json, bookingDays[row]);
+
+            String[] counterParty = dictionaries.counterParties.decode(counterParties[row]);
+            json.append(",\"counterPartyAccount\":{\"accountName\":");
+            appendString(json, counterParty[0]);
+            json.append(",\"accountNumber\":");
+            appendString(json, counterParty[1]);
+            json.append(",\"bankCode\":");
+            appendString(json, counterParty[2]);
+            json.append("},\"creditDebitIndicator\":");
+            appendString(json, dictionaries.strings.decode(creditDebitIndicators[row]));
+
+            boolean hasDetails = false;
+            for (int i = 0; i < DETAIL_COUNT; i++) {
+                String detail = details[row * DETAIL_COUNT + i];
+                if (detail == null) continue;
+                json.append(hasDetails ? "," : ",\"details\":{").append("\"detail").append(i + 1).append("\":");
+                appendString(json, detail);
+                hasDetails = true;
+            }
+            if (hasDetails) json.append('}');
+
+            String[] statement = dictionaries.statements.decode(statements[row]);
+            String[] transactionType = dictionaries.transactionTypes.decode(transactionTypes[row]);
+            json.append(",\"id\":");
+            appendString(json, ids[row]);
+            json.append(",\"ownAccountNumber\":");
+            appendString(json, accountNumber);
+            json.append(",\"postingDate\":");
+            appendDate(json, postingDays[row]);
+            json.append(",\"productBankRef\":");
+            appendString(json, productBankRefs[row]);
+            json.append(",\"specificSymbol\":");
+            appendString(json, specificSymbols[row]);
+            json.append(",\"statementNumber\":");
+            appendString(json, statement[0]);
+            json.append(",\"statementPeriod\":");
+            appendString(json, statement[1]);
+            json.append(",\"transactionId\":");
+            appendString(json, transactionIds[row]);
+            json.append(",\"transactionType\":");
+            appendString(json, transactionType[0]);
+            json.append(",\"transactionTypeCode\":").append(transactionType[1]);
+            json.append(",\"variableSymbol\":");
+            appendString(json, variableSymbols[row]);
+            json.append('}');
+        }
+        return json.append(']').toString();
+    }
+
+    /**
+     * Metoda pro výpočet souhrnu transakcí podle měny a směru platby.
+     * Součty se počítají přímo nad poli haléřových částek.
+     * @return skupiny souhrnu ve stejném formátu jako dotaz select_transactions_summary.sql
+     */
+    JsonArray summarize() {
+        Map<Long, long[]> groups = new LinkedHashMap<>();
+        for (int row = 0; row < size; row++) {
+            long key = ((long) currencies[row] << 32) | (creditDebitIndicators[row] & 0xFFFFFFFFL);
+            long[] group = groups.computeIfAbsent(key, k -> new long[2]);
+            group[0]++;
+            group[1] = Math.addExact(group[1], amounts[row]);
+        }
+        JsonArray totals = new JsonArray();
+        for (Map.Entry<Long, long[]> entry : groups.entrySet()) {
+            totals.add(new JsonObject()
+                    .put("currency", dictionaries.strings.decode((int) (entry.getKey() >>> 32)))
+                    .put("creditDebitIndicator", dictionaries.strings.decode((int) entry.getKey().longValue()))
+                    .put("count", entry.getValue()[0])
+                    .put("amount", BigDecimal.valueOf(entry.getValue()[1], AMOUNT_SCALE)));
+        }
+        return totals;
+    }
+
+    /**
+     * Metoda vrací počet uložených transakcí.
+     * @return počet transakcí
+     */
+    int size() {
+        return size;
+    }
+
+    private long store(String[] column, int index, String value) {
+        column[index] = value;
+        return value == null ? 0 : 40 + 2L * value.length();
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= trxIds.length) {
+            return;
+        }
+        int capacity = Math.max(required, trxIds.length * 2);
+        trxIds = Arrays.copyOf(trxIds, capacity);
+        amounts = Arrays.copyOf(amounts, capacity);
+        currencies = Arrays.copyOf(currencies, capacity);
+        creditDebitIndicators = Arrays.copyOf(creditDebitIndicators, capacity);
+        bookingDays = Arrays.copyOf(bookingDays, capacity);
+        postingDays = Arrays.copyOf(postingDays, capacity);
+        counterParties = Arrays.copyOf(counterParties, capacity);
+        transactionTypes = Arrays.copyOf(transactionTypes, capacity);
+        statements = Arrays.copyOf(statements, capacity);
+        bankrefs = Arrays.copyOf(bankrefs, capacity);
+        ids = Arrays.copyOf(ids, capacity);
+        transactionIds = Arrays.copyOf(transactionIds, capacity);
+        productBankRefs = Arrays.copyOf(productBankRefs, capacity);
+        specificSymbols = Arrays.copyOf(specificSymbols, capacity);
+        variableSymbols = Arrays.copyOf(variableSymbols, capacity);
+        details = Arrays.copyOf(details, capacity * DETAIL_COUNT);
+    }
+
+    private static int toEpochDay(Date date) {
+        return date == null ? NULL_DATE : (int) date.toLocalDate().toEpochDay();
+    }
+
+    private static void appendAmount(StringBuilder json, long minorUnits) {
+        if (minorUnits < 0) json.append('-');
+        long units = Math.abs(minorUnits);
+        json.append(units / AMOUNT_DIVISOR).append('.');
+        appendPadded(json, units % AMOUNT_DIVISOR, AMOUNT_SCALE);
+    }
+
+    /**
+     * Metoda zapíše datum ve tvaru "yyyy-MM-dd" z počtu dní od epochy
+     * (převod na gregoriánský kalendář podle algoritmu "civil_from_days" H. Hinnanta).
+     */
+    private static void appendDate(StringBuilder json, int epochDay) {
+        if (epochDay == NULL_DATE) {
+            json.append("null");
+            return;
+        }
+        long shifted = epochDay + 719468L;
+        long era = Math.floorDiv(shifted, 146097L);
+        long dayOfEra = shifted - era * 146097L;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long shiftedMonth = (5 * dayOfYear + 2) / 153;
+        long day = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+        long month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        json.append('"');
+        appendPadded(json, year, 4);
+        json.append('-');
+        appendPadded(json, month, 2);
+        json.append('-');
+        appendPadded(json, day, 2);
+        json.append('"');
+    }
+
+    private static void appendPadded(StringBuilder json, long value, int digits) {
+        for (long limit = 10; digits > 1; digits--, limit *= 10) {
+            if (value < limit) json.append('0');
+        }
+        json.append(value);
+    }
+
+    private static void appendString(StringBuilder json, String value) {
+        if (value == null) {
+            json.append("null");
+            return;
+        }
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': json.append("\\\""); break;
+                case '\\': json.append("\\\\"); break;
+                case '\n': json.append("\\n"); break;
+                case '\r': json.append("\\r"); break;
+                case '\t': json.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        json.append("\\u00").append(HEX_DIGITS[c >> 4]).append(HEX_DIGITS[c & 0xF]);
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        json.append('"');
+    }
+}
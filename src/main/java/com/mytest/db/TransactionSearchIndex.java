@@ -0,0 +1,514 @@
+package com.mytest.db;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Invertovaný index transakcí pro vyhledávání podle symbolů, textu detailů a názvu protistrany.
+ * Každý termín ukazuje na seřazený seznam identifikátorů transakcí (trxId), uložený jako posuny typu int
+ * od nejmenšího trxId seznamu, tedy obvykle 4 bajty na výskyt termínu. Po sestavení se pole zkrátí na skutečnou délku
+ * a odhad obsazené paměti se zapíše do logu. Index se sestavuje na pozadí po startu aplikace z tabulky transakcí
+ * a průběžně se doplňuje při vytváření transakcí a účtů. Dotaz je průnikem seznamů pro jednotlivá kritéria.
+ */
+public class TransactionSearchIndex {
+    private static final Map<Vertx, TransactionSearchIndex> indexes = new ConcurrentHashMap<>();
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final String ACCOUNT = "acc:";
+    private static final String COUNTER_PARTY = "cp:";
+    private static final String VARIABLE_SYMBOL = "vs:";
+    private static final String SPECIFIC_SYMBOL = "ss:";
+    private static final String WORD = "w:";
+    private static final int TERM_OVERHEAD_BYTES = 40 + 40;
+    private static final Cursor EMPTY = new Cursor() {
+        @Override
+        public long seek(long target) {
+            return -1;
+        }
+
+        @Override
+        public long estimatedSize() {
+            return 0;
+        }
+    };
+
+    private final TreeMap<String, Postings> terms = new TreeMap<>();
+    private final TreeMap<String, Set<Long>> accountNameTokens = new TreeMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean building = new AtomicBoolean(false);
+    private volatile boolean ready = false;
+
+    /**
+     * Metoda vrací sdílenou instanci indexu pro danou instanci Vertx.
+     * @param vertx instance třídy Vertx
+     * @return instance indexu
+     */
+    public static TransactionSearchIndex forVertx(Vertx vertx) {
+        return indexes.computeIfAbsent(vertx, v -> new TransactionSearchIndex());
+    }
+
+    /**
+     * Metoda pro zrušení sdílené instance indexu pro danou instanci Vertx.
+     * @param vertx instance třídy Vertx
+     */
+    public static void shutdown(Vertx vertx) {
+        indexes.remove(vertx);
+    }
+
+    /**
+     * Metoda pro zjištění, zda je index sestaven a lze v něm vyhledávat.
+     * @return true, pokud je index sestaven
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Metoda označí začátek sestavování indexu.
+     * @return false, pokud se index již sestavuje nebo je sestaven
+     */
+    public boolean startBuilding() {
+        return !ready && building.compareAndSet(false, true);
+    }
+
+    /**
+     * Metoda označí konec sestavování indexu. Po úspěšném sestavení zkrátí pole seznamů na jejich skutečnou délku.
+     * @param success - true, pokud bylo sestavení úspěšné
+     */
+    public void finishBuilding(boolean success) {
+        if (success) {
+            lock.writeLock().lock();
+            try {
+                for (Postings postings : terms.values()) {
+                    postings.trim();
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        ready = success;
+        building.set(false);
+    }
+
+    /**
+     * Metoda vrací počet termínů v indexu.
+     * @return počet termínů
+     */
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return terms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Metoda vrací odhad paměti obsazené termíny a seznamy identifikátorů v bajtech.
+     * @return odhad obsazené paměti
+     */
+    public long estimatedBytes() {
+        lock.readLock().lock();
+        try {
+            long total = 0;
+            for (Map.Entry<String, Postings> entry : terms.entrySet()) {
+                total += TERM_OVERHEAD_BYTES + 2L * entry.getKey().length() + entry.getValue().estimatedBytes();
+            }
+            return total;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Metoda pro přidání transakce do indexu. Opakované přidání stejné transakce nemá vliv.
+     * @param trxId - identifikátor transakce
+     * @param ownAccountNumber - číslo vlastního účtu
+     * @param counterPartyAccount - identifikátor účtu protistrany
+     * @param variableSymbol - variabilní symbol
+     * @param specificSymbol - specifický symbol
+     * @param details - texty detailů transakce
+     */
+    public void addTransaction(long trxId, String ownAccountNumber, long counterPartyAccount,
+                               String variableSymbol, String specificSymbol, String... details) {
+        lock.writeLock().lock();
+        try {
+            if (ownAccountNumber != null) {
+                addTerm(ACCOUNT + ownAccountNumber.trim(), trxId);
+            }
+            addTerm(COUNTER_PARTY + counterPartyAccount, trxId);
+            if (variableSymbol != null && !variableSymbol.trim().isEmpty()) {
+                addTerm(VARIABLE_SYMBOL + variableSymbol.trim(), trxId);
+            }
+            if (specificSymbol != null && !specificSymbol.trim().isEmpty()) {
+                addTerm(SPECIFIC_SYMBOL + specificSymbol.trim(), trxId);
+            }
+            for (String detail : details) {
+                for (String token : tokenize(detail)) {
+                    addTerm(WORD + token, trxId);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Metoda pro přidání účtu do indexu názvů protistran.
+     * @param accountId - identifikátor účtu
+     * @param name - název účtu
+     */
+    public void addAccount(long accountId, String name) {
+        lock.writeLock().lock();
+        try {
+            for (String token : tokenize(name)) {
+                accountNameTokens.computeIfAbsent(token, t -> new HashSet<>()).add(accountId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Metoda pro vyhledání transakcí.
+     * Kritéria: "q" - začátky slov z detailů, "variableSymbol" a "specificSymbol" - přesná shoda,
+     * "counterparty" - začátky slov názvu protistrany, "accountNumber" - omezení na vlastní účet.
+     * Seznamy identifikátorů se prochází přímo v indexu od nejvyššího trxId a průnik se počítá
+     * přeskakováním v seznamech od nejkratšího, hledání skončí po nalezení "limit" výsledků.
+     * @param criteria - kritéria vyhledávání, alespoň jedno musí být vyplněno
+     * @param limit - maximální počet výsledků
+     * @return identifikátory nalezených transakcí od nejnovější
+     */
+    public long[] search(JsonObject criteria, int limit) {
+        lock.readLock().lock();
+        try {
+            List<Cursor> cursors = new ArrayList<>();
+            String accountNumber = criteria.getString("accountNumber");
+            if (accountNumber != null) {
+                cursors.add(exact(ACCOUNT + accountNumber.trim()));
+            }
+            String variableSymbol = criteria.getString("variableSymbol");
+            if (variableSymbol != null) {
+                cursors.add(exact(VARIABLE_SYMBOL + variableSymbol.trim()));
+            }
+            String specificSymbol = criteria.getString("specificSymbol");
+            if (specificSymbol != null) {
+                cursors.add(exact(SPECIFIC_SYMBOL + specificSymbol.trim()));
+            }
+            for (String token : tokenize(criteria.getString("q"))) {
+                cursors.add(prefix(WORD + token));
+            }
+            for (String token : tokenize(criteria.getString("counterparty"))) {
+                cursors.add(counterPartyPrefix(token));
+            }
+            if (cursors.isEmpty()) {
+                return new long[0];
+            }
+            cursors.sort(Comparator.comparingLong(Cursor::estimatedSize));
+            return intersect(cursors, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Metoda pro ověření, zda kritéria obsahují alespoň jednu podmínku použitelnou pro vyhledání.
+     * Textová kritéria musí mít alespoň dva znaky.
+     * @param criteria - kritéria vyhledávání
+     * @return true, pokud lze podle kritérií vyhledávat
+     */
+    public static boolean hasSearchableCriteria(JsonObject criteria) {
+        return criteria.getString("variableSymbol") != null
+                || criteria.getString("specificSymbol") != null
+                || !tokenize(criteria.getString("q")).isEmpty()
+                || !tokenize(criteria.getString("counterparty")).isEmpty();
+    }
+
+    private void addTerm(String term, long trxId) {
+        terms.computeIfAbsent(term, t -> new Postings()).add(trxId);
+    }
+
+    private Cursor exact(String term) {
+        Postings postings = terms.get(term);
+        return postings == null ? EMPTY : new PostingsCursor(postings);
+    }
+
+    private Cursor prefix(String termPrefix) {
+        List<PostingsCursor> cursors = new ArrayList<>();
+        for (Postings postings : terms.subMap(termPrefix, true, termPrefix + Character.MAX_VALUE, true).values()) {
+            cursors.add(new PostingsCursor(postings));
+        }
+        return union(cursors);
+    }
+
+    private Cursor counterPartyPrefix(String token) {
+        NavigableMap<String, Set<Long>> matchingTokens = accountNameTokens.subMap(token, true, token + Character.MAX_VALUE, true);
+        Set<Long> accountIds = new HashSet<>();
+        for (Set<Long> ids : matchingTokens.values()) {
+            accountIds.addAll(ids);
+        }
+        List<PostingsCursor> cursors = new ArrayList<>();
+        for (Long accountId : accountIds) {
+            Postings postings = terms.get(COUNTER_PARTY + accountId);
+            if (postings != null) {
+                cursors.add(new PostingsCursor(postings));
+            }
+        }
+        return union(cursors);
+    }
+
+    private static Cursor union(List<PostingsCursor> cursors) {
+        if (cursors.isEmpty()) {
+            return EMPTY;
+        }
+        return cursors.size() == 1 ? cursors.get(0) : new UnionCursor(cursors);
+    }
+
+    /**
+     * Metoda pro průnik seznamů sestupně podle trxId. Nejkratší seznam navrhuje kandidáta,
+     * ostatní seznamy na něj přeskočí binárním hledáním; pokud kandidáta neobsahují, navrhnou nižší.
+     */
+    private static long[] intersect(List<Cursor> cursors, int limit) {
+        long[] result = new long[Math.max(0, limit)];
+        int size = 0;
+        long target = Long.MAX_VALUE;
+        Cursor driver = cursors.get(0);
+        while (size < result.length) {
+            long candidate = driver.seek(target);
+            if (candidate < 0) {
+                break;
+            }
+            boolean matched = true;
+            for (int i = 1; i < cursors.size(); i++) {
+                long found = cursors.get(i).seek(candidate);
+                if (found < 0) {
+                    return Arrays.copyOf(result, size);
+                }
+                if (found != candidate) {
+                    target = found;
+                    matched = false;
+                    break;
+                }
+            }
+            if (matched) {
+                result[size++] = candidate;
+                target = candidate - 1;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    private static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        for (String token : TOKEN_SEPARATOR.split(normalized)) {
+            if (token.length() >= MIN_PREFIX_LENGTH) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Seřazený seznam identifikátorů transakcí jednoho termínu, uložený jako posuny typu int od nejmenšího trxId.
+     * Pokud rozsah identifikátorů termínu přesáhne Integer.MAX_VALUE, seznam přejde na pole long.
+     */
+    private static final class Postings {
+        private long base;
+        private int[] offsets = new int[4];
+        private long[] wide;
+        private int size = 0;
+
+        void add(long trxId) {
+            if (size > 0 && get(size - 1) >= trxId) {
+                int position = search(size, trxId);
+                if (position >= 0) {
+                    return;
+                }
+                insertAt(-position - 1, trxId);
+                return;
+            }
+            insertAt(size, trxId);
+        }
+
+        long get(int position) {
+            return wide != null ? wide[position] : base + offsets[position];
+        }
+
+        /**
+         * Binární hledání v prvních "to" položkách se stejným výsledkem jako Arrays.binarySearch.
+         */
+        int search(int to, long trxId) {
+            int low = 0;
+            int high = to - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                long value = get(middle);
+                if (value < trxId) {
+                    low = middle + 1;
+                } else if (value > trxId) {
+                    high = middle - 1;
+                } else {
+                    return middle;
+                }
+            }
+            return -(low + 1);
+        }
+
+        void trim() {
+            if (wide != null) {
+                wide = Arrays.copyOf(wide, size);
+            } else if (offsets.length > size) {
+                offsets = Arrays.copyOf(offsets, size);
+            }
+        }
+
+        long estimatedBytes() {
+            return 40 + 16 + (wide != null ? (long) wide.length * Long.BYTES : (long) offsets.length * Integer.BYTES);
+        }
+
+        private void insertAt(int position, long trxId) {
+            if (size == 0) {
+                base = trxId;
+            }
+            if (wide == null && trxId < base) {
+                rebase(trxId);
+            }
+            if (wide == null && trxId - base > Integer.MAX_VALUE) {
+                widen();
+            }
+            int capacity = wide != null ? wide.length : offsets.length;
+            int newCapacity = size == capacity ? size + (size >> 1) + 1 : capacity;
+            if (wide != null) {
+                wide = newCapacity == capacity ? wide : Arrays.copyOf(wide, newCapacity);
+                System.arraycopy(wide, position, wide, position + 1, size - position);
+                wide[position] = trxId;
+            } else {
+                offsets = newCapacity == capacity ? offsets : Arrays.copyOf(offsets, newCapacity);
+                System.arraycopy(offsets, position, offsets, position + 1, size - position);
+                offsets[position] = (int) (trxId - base);
+            }
+            size++;
+        }
+
+        private void rebase(long newBase) {
+            long shift = base - newBase;
+            if (offsets[size - 1] + shift > Integer.MAX_VALUE) {
+                widen();
+                return;
+            }
+            for (int i = 0; i < size; i++) {
+                offsets[i] += (int) shift;
+            }
+            base = newBase;
+        }
+
+        private void widen() {
+            wide = new long[offsets.length];
+            for (int i = 0; i < size; i++) {
+                wide[i] = base + offsets[i];
+            }
+            offsets = null;
+        }
+    }
+
+    /**
+     * Sestupný průchod seznamem identifikátorů. Metoda seek vrací největší identifikátor,
+     * který není větší než zadaná hodnota, nebo -1. Hodnoty předávané metodě seek nesmí růst.
+     */
+    private interface Cursor {
+        long seek(long target);
+
+        long estimatedSize();
+    }
+
+    /**
+     * Průchod jedním seznamem přímo nad polem indexu, bez kopírování.
+     */
+    private static final class PostingsCursor implements Cursor {
+        private final Postings postings;
+        private int position;
+
+        private PostingsCursor(Postings postings) {
+            this.postings = postings;
+            this.position = postings.size - 1;
+        }
+
+        long current() {
+            return position >= 0 ? postings.get(position) : -1;
+        }
+
+        @Override
+        public long seek(long target) {
+            if (position >= 0 && postings.get(position) > target) {
+                int found = postings.search(position, target);
+                position = found >= 0 ? found : -found - 2;
+            }
+            return current();
+        }
+
+        @Override
+        public long estimatedSize() {
+            return position + 1;
+        }
+    }
+
+    /**
+     * Sjednocení více seznamů (termíny se stejným začátkem), procházené sestupně pomocí haldy.
+     */
+    private static final class UnionCursor implements Cursor {
+        private final PriorityQueue<PostingsCursor> heap;
+        private final long estimatedSize;
+
+        private UnionCursor(List<PostingsCursor> cursors) {
+            this.heap = new PriorityQueue<>(cursors.size(), (a, b) -> Long.compare(b.current(), a.current()));
+            long total = 0;
+            for (PostingsCursor cursor : cursors) {
+                total += cursor.estimatedSize();
+                if (cursor.current() >= 0) {
+                    heap.add(cursor);
+                }
+            }
+            this.estimatedSize = total;
+        }
+
+        @Override
+        public long seek(long target) {
+            while (!heap.isEmpty() && heap.peek().current() > target) {
+                PostingsCursor cursor = heap.poll();
+                if (cursor.seek(target) >= 0) {
+                    heap.add(cursor);
+                }
+            }
+            return heap.isEmpty() ? -1 : heap.peek().current();
+        }
+
+        @Override
+        public long estimatedSize() {
+            return estimatedSize;
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package com.mytest.starter;
 
 import com.mytest.api.RestApi;
+import com.mytest.db.DataSourceRouter;
+import com.mytest.db.DuplicateFilter;
+import com.mytest.db.HotAccountStore;
+import com.mytest.db.TransactionSearchIndex;
 import io.vertx.core.AbstractVerticle;
 import io.vertx.core.Promise;
 import io.vertx.ext.web.Router;
@@ -21,12 +25,14 @@ public class PpfBankApp extends AbstractVerticle {
     /**
      * Metoda pro spuštění aplikace.
      * Metoda načte konfiguraci z konfiguračního souboru a spustí server HTTP.
+     * Po spuštění serveru proběhne zahřátí aplikace (StartupPhases), teprve poté hlásí /health/ready připravenost.
      * Pokud se konfigurace nepodaří načíst, metoda vypíše chybovou hlášku.
      * Pokud se nepodaří spustit server HTTP, metoda rovněž vypíše chybovou hlášku.
      *
      */
     @Override
     public void start() throws Exception {
+        long startedAt = System.currentTimeMillis();
         Promise<Void> configPromise = Promise.promise();
 
         ConfigStoreOptions fileStore = new ConfigStoreOptions()
@@ -41,6 +47,10 @@ public class PpfBankApp extends AbstractVerticle {
                 JsonObject config = ar.result();
                 vertx.sharedData().getLocalMap("app-config").put("dbConfig", config.getJsonObject("db"));
                 vertx.sharedData().getLocalMap("app-config").put("httpConfig", config.getJsonObject("http"));
+                vertx.sharedData().getLocalMap("app-config").put("hotAccountsConfig", config.getJsonObject("hot_accounts", new JsonObject()));
+                vertx.sharedData().getLocalMap("app-config").put("startupConfig", config.getJsonObject("startup", new JsonObject()));
+                vertx.sharedData().getLocalMap("app-config").put("ingestionConfig", config.getJsonObject("ingestion", new JsonObject()));
+                vertx.sharedData().getLocalMap("app-config").put("exportConfig", config.getJsonObject("export", new JsonObject()));
                 logger.info("Konfigurace byla úspěšně načtena");
                 configPromise.complete();
             } else {
@@ -50,6 +60,9 @@ public class PpfBankApp extends AbstractVerticle {
         });
         configPromise.future().onComplete(ar -> {
             if (ar.succeeded()) {
+                StartupPhases startupPhases = new StartupPhases(vertx);
+                startupPhases.record("config", System.currentTimeMillis() - startedAt);
+                long httpStartedAt = System.currentTimeMillis();
                 JsonObject httpConfig = (JsonObject) vertx.sharedData().getLocalMap("app-config").get("httpConfig");
                 int localServerPort = httpConfig.getInteger("port", 8080);
                 Router router = new RestApi(vertx).createRouter();
@@ -57,6 +70,8 @@ public class PpfBankApp extends AbstractVerticle {
                 vertx.createHttpServer().requestHandler(router).listen(localServerPort, http -> {
                     if (http.succeeded()) {
                         logger.info("Server HTTP byl spuštěn na portu " + localServerPort);
+                        startupPhases.record("http", System.currentTimeMillis() - httpStartedAt);
+                        startupPhases.warmUp(localServerPort);
                     } else {
                         logger.error("Nepodařilo se spustit server HTTP. Chyba: " + http.cause().getMessage());
                     }
@@ -69,12 +84,16 @@ public class PpfBankApp extends AbstractVerticle {
 
     /**
      * Metoda pro ukončení aplikace.
-     * Metoda zavře instanci třídy Vertx.
+     * Metoda uzavře pooly databázových připojení, uvolní paměť horkých účtů a vyhledávacího indexu a zavře instanci třídy Vertx.
      * Pokud se nepodaří instanci třídy Vertx zavřít, metoda vypíše chybovou hlášku.
      *
      */
     @Override
     public void stop() throws Exception {
+        DataSourceRouter.shutdown(vertx);
+        HotAccountStore.shutdown(vertx);
+        TransactionSearchIndex.shutdown(vertx);
+        DuplicateFilter.shutdown(vertx);
         vertx.close(ar -> {
             if (ar.succeeded()) {
                 logger.info("Aplikace byla úspěšně ukončena.");
@@ -0,0 +1,140 @@
+package com.mytest.starter;
+
+import com.mytest.db.DataSourceRouter;
+import com.mytest.db.DbService;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.shareddata.LocalMap;
+import io.vertx.ext.web.client.WebClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Třída StartupPhases řídí fáze startu aplikace a měří jejich trvání.
+ * Po spuštění serveru HTTP předvytvoří připojení k databázi, načte SQL dotazy, naplní filtr duplicitních transakcí
+ * a odešle na vlastní REST API několik zahřívacích požadavků. Teprve poté označí aplikaci jako připravenou
+ * a na pozadí začne sestavovat vyhledávací index transakcí, na kterém připravenost nezávisí.
+ * Stav, časy fází a případná chyba jsou uloženy ve sdílených datech "app-state" pod klíči "ready", "startupTimings" a "startupError".
+ */
+public class StartupPhases {
+    private static final Logger logger = LoggerFactory.getLogger(StartupPhases.class);
+    private static final String[] WARMUP_PATHS = {"/hi", "/accounts/%s/transactions", "/accounts/%s/summary"};
+    private final Vertx vertx;
+    private final JsonObject startupConfig;
+    private final JsonObject timings = new JsonObject();
+    private final long startedAt = System.currentTimeMillis();
+
+    /**
+     * Konstruktor třídy StartupPhases.
+     * @param vertx instance třídy Vertx
+     */
+    public StartupPhases(Vertx vertx) {
+        this.vertx = vertx;
+        JsonObject config = (JsonObject) vertx.sharedData().getLocalMap("app-config").get("startupConfig");
+        this.startupConfig = config == null ? new JsonObject() : config;
+        LocalMap<String, Object> appState = vertx.sharedData().getLocalMap("app-state");
+        appState.put("ready", false);
+        appState.put("startupTimings", timings);
+    }
+
+    /**
+     * Metoda pro zaznamenání doby trvání fáze startu.
+     * @param phase - název fáze
+     * @param durationMs - doba trvání v milisekundách
+     */
+    public void record(String phase, long durationMs) {
+        timings.put(phase, durationMs);
+        vertx.sharedData().getLocalMap("app-state").put("startupTimings", timings);
+        logger.info(String.format("Fáze startu \"%s\" dokončena za %d ms.", phase, durationMs));
+    }
+
+    /**
+     * Metoda pro spuštění zahřívacích fází a označení aplikace jako připravené.
+     * Aplikace se označí jako připravená pouze tehdy, když všechny fáze proběhnou úspěšně.
+     * Při chybě se zbylé fáze přeskočí, chyba se uloží do sdílených dat pod klíčem "startupError"
+     * a zahřívání se zopakuje po "retry_interval_ms" milisekundách.
+     * @param port - port, na kterém naslouchá server HTTP
+     * @return výsledek prvního pokusu o zahřátí
+     */
+    public Future<Void> warmUp(int port) {
+        DbService dbService = new DbService(vertx);
+        return phase("pool", () -> DataSourceRouter.forVertx(vertx).prefill() + " připojení")
+                .compose(v -> phase("sql", () -> dbService.preloadResources() + " zdrojů"))
+                .compose(v -> phase("dedup", dbService::loadDuplicateFilter))
+                .compose(v -> syntheticRequests(port))
+                .onSuccess(v -> {
+                    record("total", System.currentTimeMillis() - startedAt);
+                    LocalMap<String, Object> appState = vertx.sharedData().getLocalMap("app-state");
+                    appState.remove("startupError");
+                    appState.put("ready", true);
+                    logger.info("Aplikace je připravena přijímat požadavky.");
+                    buildSearchIndex(dbService);
+                })
+                .onFailure(e -> {
+                    long retryInterval = startupConfig.getLong("retry_interval_ms", 5000L);
+                    vertx.sharedData().getLocalMap("app-state").put("startupError", e.getMessage());
+                    logger.warn(String.format("Zahřívání aplikace selhalo, další pokus proběhne za %d ms. Chyba: %s", retryInterval, e.getMessage()));
+                    vertx.setTimer(retryInterval, id -> warmUp(port));
+                });
+    }
+
+    /**
+     * Metoda spustí sestavení vyhledávacího indexu mimo pořadí ostatních blokujících úloh.
+     * Pokud sestavení selže, zopakuje se při prvním požadavku na vyhledávání.
+     */
+    private void buildSearchIndex(DbService dbService) {
+        long phaseStart = System.currentTimeMillis();
+        vertx.<String>executeBlocking(promise -> {
+            try {
+                promise.complete(dbService.buildSearchIndex());
+            } catch (Exception e) {
+                promise.fail(e);
+            }
+        }, false, ar -> {
+            if (ar.succeeded()) {
+                record("index", System.currentTimeMillis() - phaseStart);
+            } else {
+                logger.warn("Vyhledávací index se nepodařilo sestavit, sestaví se při prvním vyhledávání. Chyba: " + ar.cause().getMessage());
+            }
+        });
+    }
+
+    private Future<Void> phase(String name, Callable<String> action) {
+        long phaseStart = System.currentTimeMillis();
+        return vertx.<String>executeBlocking(promise -> {
+            try {
+                promise.complete(action.call());
+            } catch (Exception e) {
+                promise.fail(e);
+            }
+        }).<Void>map(result -> {
+            logger.info(String.format("Fáze startu \"%s\": %s", name, result));
+            return null;
+        }).onFailure(e -> logger.warn(String.format("Fáze startu \"%s\" selhala. Chyba: %s", name, e.getMessage())))
+                .onComplete(ar -> record(name, System.currentTimeMillis() - phaseStart));
+    }
+
+    private Future<Void> syntheticRequests(int port) {
+        long phaseStart = System.currentTimeMillis();
+        int requests = startupConfig.getInteger("warmup_requests", 0);
+        String account = startupConfig.getString("warmup_account", "");
+        WebClient client = WebClient.create(vertx);
+        Future<Void> chain = Future.succeededFuture();
+        for (int i = 0; i < requests; i++) {
+            String path = String.format(WARMUP_PATHS[i % WARMUP_PATHS.length], account);
+            chain = chain.compose(v -> client.get(port, "localhost", path).send()
+                    .<Void>map(response -> null)
+                    .recover(e -> {
+                        logger.warn(String.format("Zahřívací požadavek %s selhal. Chyba: %s", path, e.getMessage()));
+                        return Future.succeededFuture();
+                    }));
+        }
+        return chain.onComplete(ar -> {
+            client.close();
+            record("warmup", System.currentTimeMillis() - phaseStart);
+        });
+    }
+}
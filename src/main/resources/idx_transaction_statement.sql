@@ -0,0 +1,2 @@
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'IX_transaction_statement')
+CREATE INDEX IX_transaction_statement ON [transaction] (statement, trxId)
\ No newline at end of file
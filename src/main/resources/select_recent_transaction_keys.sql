@@ -0,0 +1 @@
+SELECT TOP (?) transactionId, bankref FROM [transaction] ORDER BY trxId DESC
\ No newline at end of file
@@ -0,0 +1,4 @@
+SELECT t.trxId, t.ownAccountNumber, t.counterPartyAccount, t.variableSymbol, t.specificSymbol,
+t.detail1, t.detail2, t.detail3, t.detail4
+FROM [transaction] t
+ORDER BY t.trxId
\ No newline at end of file
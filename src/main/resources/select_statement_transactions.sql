@@ -0,0 +1,7 @@
+SELECT t.*, a.name AS counterPartyAccountName, a.number AS counterPartyAccountNumber, a.code AS counterPartyAccountCode,
+tt.type AS transactionTypeStr, tt.code AS transactionTypeCode
+FROM [transaction] t
+JOIN [account] a ON t.counterPartyAccount = a.accountId
+JOIN [transactionType] tt ON t.transactionType = tt.trxTypeId
+WHERE t.statement = ?
+ORDER BY t.trxId
\ No newline at end of file
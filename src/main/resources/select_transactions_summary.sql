@@ -0,0 +1,4 @@
+SELECT t.currency, t.creditDebitIndicator, COUNT(*) AS transactionCount, SUM(t.amount) AS amountSum
+FROM [transaction] t
+WHERE t.ownAccountNumber = ?
+GROUP BY t.currency, t.creditDebitIndicator
\ No newline at end of file
@@ -0,0 +1,6 @@
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'UQ_transaction_transactionId_bankref')
+BEGIN
+IF EXISTS (SELECT transactionId, bankref FROM [transaction] GROUP BY transactionId, bankref HAVING COUNT(*) > 1)
+THROW 50000, N'Tabulka transaction obsahuje duplicitní dvojice transactionId a bankref, unikátní klíč nelze vytvořit. Duplicity je nutné nejprve odstranit (viz README).', 1;
+ALTER TABLE [transaction] ADD CONSTRAINT UQ_transaction_transactionId_bankref UNIQUE (transactionId, bankref)
+END
\ No newline at end of file
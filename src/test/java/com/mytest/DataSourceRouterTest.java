@@ -0,0 +1,196 @@
+package com.mytest;
+
+import com.mytest.db.DataSourceRouter;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Třída DataSourceRouterTest představuje testovací třídu pro testování třídy DataSourceRouter.
+ * Primární databázi a repliky zastupují vestavěné databáze H2.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class DataSourceRouterTest {
+    private static final String PRIMARY_URL = "jdbc:h2:mem:routerPrimary;DB_CLOSE_DELAY=-1";
+    private static final String REPLICA_URL = "jdbc:h2:mem:routerReplica;DB_CLOSE_DELAY=-1";
+    private static final String SECOND_REPLICA_URL = "jdbc:h2:mem:routerSecondReplica;DB_CLOSE_DELAY=-1";
+    private static final String LATE_REPLICA_URL = "jdbc:h2:mem:routerLateReplica;IFEXISTS=TRUE;DB_CLOSE_DELAY=-1";
+    private static final String UNREACHABLE_URL = "jdbc:h2:tcp://localhost:1/unreachable";
+    private Connection primaryKeeper;
+    private Connection replicaKeeper;
+    private Connection secondReplicaKeeper;
+    private Connection lateReplicaKeeper;
+
+    @BeforeAll
+    void setUp() throws SQLException {
+        primaryKeeper = createNode(PRIMARY_URL, "primary");
+        replicaKeeper = createNode(REPLICA_URL, "replica");
+        secondReplicaKeeper = createNode(SECOND_REPLICA_URL, "second");
+    }
+
+    @AfterAll
+    void tearDown() throws SQLException {
+        primaryKeeper.close();
+        replicaKeeper.close();
+        secondReplicaKeeper.close();
+        if (lateReplicaKeeper != null) {
+            lateReplicaKeeper.close();
+        }
+    }
+
+    @Test
+    void testReadsGoToReplicaAndWritesToPrimary() throws SQLException {
+        DataSourceRouter router = new DataSourceRouter(config(REPLICA_URL, 0));
+        try (Connection connection = router.getReadConnection(null)) {
+            assertEquals("replica", nodeName(connection));
+        }
+        try (Connection connection = router.getWriteConnection(null)) {
+            assertEquals("primary", nodeName(connection));
+        }
+        router.close();
+    }
+
+    @Test
+    void testReadYourWrites() throws SQLException {
+        DataSourceRouter router = new DataSourceRouter(config(REPLICA_URL, 60000));
+        router.getWriteConnection("session-1").close();
+        try (Connection connection = router.getReadConnection("session-1")) {
+            assertEquals("primary", nodeName(connection));
+        }
+        try (Connection connection = router.getReadConnection("session-2")) {
+            assertEquals("replica", nodeName(connection));
+        }
+        router.close();
+    }
+
+    @Test
+    void testFallbackToPrimary() throws SQLException {
+        DataSourceRouter router = new DataSourceRouter(config(UNREACHABLE_URL, 0));
+        try (Connection connection = router.getReadConnection(null)) {
+            assertEquals("primary", nodeName(connection));
+        }
+        router.checkReplicas();
+        try (Connection connection = router.getReadConnection(null)) {
+            assertEquals("primary", nodeName(connection));
+        }
+        router.close();
+    }
+
+    @Test
+    void testWeightedSelection() throws SQLException {
+        DataSourceRouter router = new DataSourceRouter(config(new JsonArray()
+                .add(new JsonObject().put("url", REPLICA_URL).put("weight", 3))
+                .add(new JsonObject().put("url", SECOND_REPLICA_URL).put("weight", 1)), 0));
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 2000; i++) {
+            try (Connection connection = router.getReadConnection(null)) {
+                counts.merge(nodeName(connection), 1, Integer::sum);
+            }
+        }
+        assertNull(counts.get("primary"));
+        double ratio = (double) counts.get("replica") / counts.get("second");
+        assertTrue(ratio > 2.4 && ratio < 3.8, "Poměr čtení replik: " + ratio);
+        router.close();
+    }
+
+    @Test
+    void testRecoveryAfterCheckReplicas() throws SQLException {
+        DataSourceRouter router = new DataSourceRouter(config(LATE_REPLICA_URL, 0));
+        try (Connection connection = router.getReadConnection(null)) {
+            assertEquals("primary", nodeName(connection));
+        }
+        lateReplicaKeeper = createNode(LATE_REPLICA_URL.replace(";IFEXISTS=TRUE", ""), "late");
+        try (Connection connection = router.getReadConnection(null)) {
+            assertEquals("primary", nodeName(connection));
+        }
+        router.checkReplicas();
+        try (Connection connection = router.getReadConnection(null)) {
+            assertEquals("late", nodeName(connection));
+        }
+        router.close();
+    }
+
+    @Test
+    void testSaturatedReplicaStaysHealthy() throws SQLException {
+        DataSourceRouter router = new DataSourceRouter(config(new JsonArray().add(new JsonObject()
+                .put("url", REPLICA_URL).put("weight", 1).put("max_pool_size", 1)), 0));
+        try (Connection busy = router.getReadConnection(null)) {
+            assertEquals("replica", nodeName(busy));
+            long start = System.nanoTime();
+            try (Connection connection = router.getReadConnection(null)) {
+                assertEquals("primary", nodeName(connection));
+            }
+            router.checkReplicas();
+            assertTrue(System.nanoTime() - start < 500_000_000L);
+        }
+        try (Connection connection = router.getReadConnection(null)) {
+            assertEquals("replica", nodeName(connection));
+        }
+        router.close();
+    }
+
+    @Test
+    void testSaturatedReplicaFallsBackToNextReplica() throws SQLException {
+        DataSourceRouter router = new DataSourceRouter(config(new JsonArray()
+                .add(new JsonObject().put("url", REPLICA_URL).put("weight", 1).put("max_pool_size", 1))
+                .add(new JsonObject().put("url", SECOND_REPLICA_URL).put("weight", 1).put("max_pool_size", 1)), 0));
+        try (Connection first = router.getReadConnection(null);
+             Connection second = router.getReadConnection(null)) {
+            assertNotEquals(nodeName(first), nodeName(second));
+            assertNotEquals("primary", nodeName(second));
+            try (Connection third = router.getReadConnection(null)) {
+                assertEquals("primary", nodeName(third));
+            }
+        }
+        router.close();
+    }
+
+    private JsonObject config(String replicaUrl, long readYourWritesMs) {
+        return config(new JsonArray().add(new JsonObject().put("url", replicaUrl).put("weight", 1)), readYourWritesMs);
+    }
+
+    private JsonObject config(JsonArray replicas, long readYourWritesMs) {
+        return new JsonObject()
+                .put("url", PRIMARY_URL)
+                .put("user", "sa")
+                .put("password", "")
+                .put("max_pool_size", 2)
+                .put("connection_timeout", 1000)
+                .put("idle_timeout", 60000)
+                .put("read_your_writes_ms", readYourWritesMs)
+                .put("replicas", replicas);
+    }
+
+    private Connection createNode(String url, String name) throws SQLException {
+        Connection keeper = DriverManager.getConnection(url, "sa", "");
+        try (Statement statement = keeper.createStatement()) {
+            statement.executeUpdate("CREATE TABLE node (name VARCHAR(20))");
+            statement.executeUpdate("INSERT INTO node VALUES ('" + name + "')");
+        }
+        return keeper;
+    }
+
+    private String nodeName(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT name FROM node")) {
+            rs.next();
+            return rs.getString("name");
+        }
+    }
+}
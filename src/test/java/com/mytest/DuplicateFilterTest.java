@@ -0,0 +1,100 @@
+package com.mytest;
+
+import com.mytest.db.DbService;
+import com.mytest.db.DuplicateFilter;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.junit5.VertxExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Třída DuplicateFilterTest představuje testovací třídu pro testování filtru duplicitních transakcí
+ * a idempotentního vytváření transakcí nad vestavěnou databází H2.
+ */
+@ExtendWith(VertxExtension.class)
+public class DuplicateFilterTest {
+    private static final String DB_URL = "jdbc:h2:mem:duplicateFilter;MODE=MSSQLServer;DB_CLOSE_DELAY=-1";
+
+    @Test
+    void testKeysAreUnambiguous() {
+        DuplicateFilter filter = new DuplicateFilter(null);
+        filter.remember(DuplicateFilter.key("A|B", "C"));
+        assertTrue(filter.isRecent(DuplicateFilter.key("A|B", "C")));
+        assertFalse(filter.isRecent(DuplicateFilter.key("A", "B|C")));
+    }
+
+    @Test
+    void testRecentKeysAreBounded() {
+        DuplicateFilter filter = new DuplicateFilter(new JsonObject().put("recent_keys", 2).put("idempotency_keys", 1));
+        filter.remember("a");
+        filter.remember("b");
+        filter.remember("c");
+        assertFalse(filter.isRecent("a"));
+        assertTrue(filter.isRecent("b"));
+        assertTrue(filter.isRecent("c"));
+
+        filter.rememberIdempotent("key1", DuplicateFilter.requestHash("tělo 1"), "výsledek 1");
+        filter.rememberIdempotent("key2", DuplicateFilter.requestHash("tělo 2"), "výsledek 2");
+        assertNull(filter.idempotentResult("key1"));
+        assertEquals("výsledek 2", filter.idempotentResult("key2").getResult());
+        assertTrue(filter.idempotentResult("key2").matches(DuplicateFilter.requestHash("tělo 2")));
+        assertFalse(filter.idempotentResult("key2").matches(DuplicateFilter.requestHash("tělo 1")));
+    }
+
+    @Test
+    void testIdempotentCreateTransaction(Vertx vertx) throws SQLException, IOException {
+        vertx.sharedData().getLocalMap("app-config").put("dbConfig", new JsonObject()
+                .put("url", DB_URL)
+                .put("user", "sa")
+                .put("password", ""));
+        try (Connection connection = DriverManager.getConnection(DB_URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            TestSchema.create(connection);
+            statement.executeUpdate("INSERT INTO [transaction] (amount, currency, id, bankref, transactionId, postingDate, "
+                    + "counterPartyAccount, transactionType, statement) VALUES (1.00, 'CZK', 'ID0', 'REF0', 'TRX0', DATE '2022-10-19', 1000, 1000, 1000)");
+
+            DbService dbService = new DbService(vertx);
+            assertTrue(dbService.loadDuplicateFilter().contains("1 nejnovějších"));
+            assertTrue(DuplicateFilter.forVertx(vertx).isRecent(DuplicateFilter.key("TRX0", "REF0")));
+            String data = new JsonObject().put("amount", "10.00").put("bankref", "REF1").put("transactionId", "TRX1")
+                    .put("bookingDate", "2022-10-20").put("postingDate", "2022-10-20").put("counterPartyAccount", 1000).put("transactionType", 1000)
+                    .put("statement", 1000).encode();
+            String created = dbService.createTransaction(data, "key1");
+            assertEquals("Transakce byla úspěšně vytvořena.", created);
+            assertEquals(created, dbService.createTransaction(data, "key1"));
+            String changed = new JsonObject(data).put("amount", "20.00").put("transactionId", "TRX2").encode();
+            assertEquals(DbService.IDEMPOTENCY_KEY_REUSED, dbService.createTransaction(changed, "key1"));
+            assertTrue(dbService.createTransaction(data).contains("již existuje"));
+
+            String existing = new JsonObject().put("amount", "1.00").put("bankref", "REF0").put("transactionId", "TRX0")
+                    .put("bookingDate", "2022-10-19").put("postingDate", "2022-10-19").put("counterPartyAccount", 1000).put("transactionType", 1000)
+                    .put("statement", 1000).encode();
+            assertTrue(dbService.createTransaction(existing).contains("již existuje"));
+
+            statement.executeUpdate("INSERT INTO [transaction] (amount, currency, id, bankref, transactionId, postingDate, "
+                    + "counterPartyAccount, transactionType, statement) VALUES (2.00, 'CZK', 'ID9', 'REF9', 'TRX9', DATE '2022-10-19', 1000, 1000, 1000)");
+            String unknown = new JsonObject(existing).put("bankref", "REF9").put("transactionId", "TRX9").encode();
+            assertTrue(dbService.createTransaction(unknown).contains("již existuje"));
+
+            try (ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM [transaction]")) {
+                rs.next();
+                assertEquals(3, rs.getLong(1));
+            }
+        } finally {
+            DuplicateFilter.shutdown(vertx);
+        }
+    }
+}
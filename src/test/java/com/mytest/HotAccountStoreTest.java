@@ -0,0 +1,138 @@
+package com.mytest;
+
+import com.mytest.db.DbService;
+import com.mytest.db.HotAccountStore;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.junit5.VertxExtension;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Třída HotAccountStoreTest představuje testovací třídu pro testování třídy HotAccountStore.
+ * Data transakcí poskytuje vestavěná databáze H2 v režimu kompatibility s MS SQL.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@ExtendWith(VertxExtension.class)
+public class HotAccountStoreTest {
+    private static final String DB_URL = "jdbc:h2:mem:hotAccounts;MODE=MSSQLServer;DB_CLOSE_DELAY=-1";
+    private Connection connection;
+    private String selectSql;
+    private String selectByIdSql;
+
+    @BeforeAll
+    void setUp(Vertx vertx) throws SQLException, IOException {
+        DbService dbService = new DbService(vertx);
+        selectSql = dbService.readResourceStr("select_transactions.sql");
+        selectByIdSql = dbService.readResourceStr("select_transaction_by_id.sql");
+
+        connection = DriverManager.getConnection(DB_URL, "sa", "");
+        TestSchema.create(connection);
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("INSERT INTO [account] VALUES (1000, 'Jan Novák', '1234567890', '0800')");
+            statement.executeUpdate("INSERT INTO [statement] VALUES (1000, '001', '2022', NULL)");
+            statement.executeUpdate("INSERT INTO [transactionType] VALUES (1000, 'CARD', 1)");
+            statement.executeUpdate(transactionInsert(1, "1500.00", "CRDT", "2002222222"));
+            statement.executeUpdate(transactionInsert(2, "100.50", "DBIT", "2002222222"));
+            statement.executeUpdate(transactionInsert(3, "42.00", "CRDT", "2003333333"));
+        }
+    }
+
+    @AfterAll
+    void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Test
+    void testListAndSummaryFromMemory() throws SQLException {
+        HotAccountStore store = new HotAccountStore(new JsonObject()
+                .put("enabled", true)
+                .put("accounts", new JsonArray().add("2002222222")));
+        assertTrue(store.registerRead("2002222222"));
+        assertFalse(store.registerRead("2003333333"));
+        assertTrue(store.load("2002222222", connection, selectSql));
+
+        String listing = store.listTransactions("2002222222");
+        assertTrue(listing.contains("\"value\":1500.00"));
+        JsonArray transactions = new JsonArray(listing);
+        assertEquals(2, transactions.size());
+        JsonObject first = transactions.getJsonObject(0);
+        assertEquals("2022-10-19", first.getString("bookingDate"));
+        assertEquals("0000001234567890", first.getJsonObject("counterPartyAccount").getString("accountNumber"));
+        assertEquals("CARD", first.getString("transactionType"));
+        assertEquals("detail 1", first.getJsonObject("details").getString("detail1"));
+
+        JsonArray totals = store.summarize("2002222222");
+        assertEquals(2, totals.size());
+        assertEquals("100.50", totals.getJsonObject(1).getValue("amount").toString());
+    }
+
+    @Test
+    void testAppendAndEviction() throws SQLException {
+        HotAccountStore store = new HotAccountStore(new JsonObject()
+                .put("enabled", true)
+                .put("promote_after_reads", 1)
+                .put("memory_budget_bytes", 1200));
+        assertTrue(store.load("2002222222", connection, selectSql));
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate(transactionInsert(4, "7.25", "DBIT", "2002222222"));
+        }
+        store.onTransactionCreated("2002222222", 4, connection, selectByIdSql);
+        assertEquals(3, new JsonArray(store.listTransactions("2002222222")).size());
+
+        assertTrue(store.load("2003333333", connection, selectSql));
+        assertNull(store.listTransactions("2002222222"));
+        assertEquals(1, new JsonArray(store.listTransactions("2003333333")).size());
+    }
+
+    @Test
+    void testCreatedTransactionAlreadyLoaded() throws SQLException {
+        HotAccountStore store = new HotAccountStore(new JsonObject().put("enabled", true));
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate(transactionInsert(11, "3.00", "DBIT", "2004444444"));
+        }
+        assertTrue(store.load("2004444444", connection, selectSql));
+        store.onTransactionCreated("2004444444", 11, connection, selectByIdSql);
+        assertEquals(1, new JsonArray(store.listTransactions("2004444444")).size());
+
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate(transactionInsert(10, "7.25", "DBIT", "2004444444"));
+        }
+        store.onTransactionCreated("2004444444", 10, connection, selectByIdSql);
+        assertEquals(2, new JsonArray(store.listTransactions("2004444444")).size());
+    }
+
+    @Test
+    void testMemoryListingMatchesDatabase(Vertx vertx) throws SQLException {
+        vertx.sharedData().getLocalMap("app-config").put("dbConfig", new JsonObject()
+                .put("url", DB_URL)
+                .put("user", "sa")
+                .put("password", ""));
+        HotAccountStore store = new HotAccountStore(new JsonObject().put("enabled", true));
+        assertTrue(store.load("2002222222", connection, selectSql));
+        JsonArray fromDatabase = new JsonArray(new DbService(vertx).getTransactionsByAccountNumber("2002222222"));
+        assertEquals(fromDatabase, new JsonArray(store.listTransactions("2002222222")));
+    }
+
+    private String transactionInsert(long trxId, String amount, String indicator, String ownAccountNumber) {
+        return String.format("INSERT INTO [transaction] (trxId, amount, currency, id, bankref, transactionId, bookingDate, postingDate, "
+                + "creditDebitIndicator, ownAccountNumber, counterPartyAccount, detail1, transactionType, statement, variableSymbol) "
+                + "VALUES (%d, %s, 'CZK', 'ID%d', 'REF%d', 'TRX%d', DATE '2022-10-19', DATE '2022-10-19', '%s', '%s', 1000, 'detail 1', 1000, 1000, '12')",
+                trxId, amount, trxId, trxId, trxId, indicator, ownAccountNumber);
+    }
+}
@@ -1,6 +1,7 @@
 package com.mytest;
 
 import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.Router;
 import io.vertx.ext.web.client.WebClient;
 import io.vertx.junit5.VertxExtension;
@@ -10,11 +11,14 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 import org.junit.jupiter.api.extension.ExtendWith;
 import com.mytest.api.RestApi;
+import com.mytest.db.DataSourceRouter;
+import com.mytest.starter.StartupPhases;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 
 /**
- * Třída RestApiTest představuje testovací třídu pro testování třídy RestApi.
+ * Třída RestApiTest představuje testovací třídu pro testování třídy RestApi a připravenosti aplikace.
  */
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
 @ExtendWith(VertxExtension.class)
@@ -35,4 +39,43 @@ public class RestApiTest {
             testContext.completeNow();
         }));
     }
+
+    @Test
+    void testHealthEndpoints(Vertx vertx, VertxTestContext testContext) {
+        WebClient client = WebClient.create(vertx);
+        client.get(8080, "localhost", "/health/live").send(testContext.succeeding(live -> {
+            testContext.verify(() -> assertEquals(200, live.statusCode()));
+            client.get(8080, "localhost", "/health/ready").send(testContext.succeeding(notReady -> {
+                testContext.verify(() -> assertEquals(503, notReady.statusCode()));
+                vertx.sharedData().getLocalMap("app-state").put("ready", true);
+                client.get(8080, "localhost", "/health/ready").send(testContext.succeeding(ready -> {
+                    testContext.verify(() -> assertEquals(200, ready.statusCode()));
+                    vertx.sharedData().getLocalMap("app-state").remove("ready");
+                    testContext.completeNow();
+                }));
+            }));
+        }));
+    }
+
+    @Test
+    void testNotReadyWhenDatabaseUnreachable(Vertx vertx, VertxTestContext testContext) {
+        vertx.sharedData().getLocalMap("app-config").put("dbConfig", new JsonObject()
+                .put("url", "jdbc:h2:tcp://localhost:1/unreachable")
+                .put("user", "sa")
+                .put("password", ""));
+        vertx.sharedData().getLocalMap("app-config").put("startupConfig", new JsonObject()
+                .put("warmup_requests", 0)
+                .put("retry_interval_ms", 60000));
+        WebClient client = WebClient.create(vertx);
+        new StartupPhases(vertx).warmUp(8080).onComplete(testContext.failing(e ->
+                client.get(8080, "localhost", "/health/ready").send(testContext.succeeding(response -> {
+                    testContext.verify(() -> {
+                        assertEquals(503, response.statusCode());
+                        assertNotNull(response.bodyAsJsonObject().getString("startupError"));
+                        assertNotNull(response.bodyAsJsonObject().getJsonObject("startupTimings").getLong("pool"));
+                    });
+                    DataSourceRouter.shutdown(vertx);
+                    testContext.completeNow();
+                }))));
+    }
 }
@@ -0,0 +1,125 @@
+package com.mytest;
+
+import com.mytest.api.RestApi;
+import com.mytest.db.DbService;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.client.WebClient;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Třída StatementExporterTest představuje testovací třídu pro testování exportu výpisů.
+ * Data výpisu poskytuje vestavěná databáze H2 v režimu kompatibility s MS SQL.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@ExtendWith(VertxExtension.class)
+public class StatementExporterTest {
+    private static final String DB_URL = "jdbc:h2:mem:statementExport;MODE=MSSQLServer;DB_CLOSE_DELAY=-1";
+    private Connection connection;
+    private DbService dbService;
+
+    @BeforeAll
+    void setUp(Vertx vertx) throws SQLException {
+        vertx.sharedData().getLocalMap("app-config").put("dbConfig", new JsonObject()
+                .put("url", DB_URL)
+                .put("user", "sa")
+                .put("password", ""));
+        dbService = new DbService(vertx);
+
+        connection = DriverManager.getConnection(DB_URL, "sa", "");
+        TestSchema.create(connection);
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("INSERT INTO [account] VALUES (1000, 'Novák & syn', '1234567890', '0800')");
+            statement.executeUpdate("INSERT INTO [statement] VALUES (1000, '195', '2022', 'Bank statement for 2022')");
+            statement.executeUpdate("INSERT INTO [transactionType] VALUES (1000, 'CARD', 1)");
+            statement.executeUpdate("INSERT INTO [transaction] (trxId, amount, currency, id, bankref, transactionId, bookingDate, postingDate, "
+                    + "creditDebitIndicator, ownAccountNumber, counterPartyAccount, detail1, transactionType, statement, variableSymbol) VALUES "
+                    + "(1, 1500.00, 'CZK', 'ID1', 'REF1', 'TRX1', DATE '2022-10-19', DATE '2022-10-19', 'CRDT', '2002222222', 1000, 'Posílám, \"peníze\"', 1000, 1000, '12'), "
+                    + "(2, 100.50, 'CZK', 'ID2', 'REF2', 'TRX2', DATE '2022-10-20', DATE '2022-10-20', 'DBIT', '2002222222', 1000, NULL, 1000, 1000, NULL)");
+        }
+    }
+
+    @AfterAll
+    void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Test
+    void testCsvExport(@TempDir Path tempDir) throws SQLException, IOException {
+        Path file = tempDir.resolve("statement.csv");
+        assertTrue(dbService.exportStatementToFile(1000, "csv", file));
+
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(0).startsWith("trxId,bookingDate,postingDate,amount"));
+        assertTrue(lines.get(1).startsWith("1,2022-10-19,2022-10-19,1500.00,CZK,CRDT,Novák & syn,"));
+        assertTrue(lines.get(1).contains(",\"Posílám, \"\"peníze\"\"\","));
+        assertTrue(lines.get(2).startsWith("2,2022-10-20,2022-10-20,100.50,CZK,DBIT,"));
+    }
+
+    @Test
+    void testXmlExport(@TempDir Path tempDir) throws SQLException, IOException {
+        Path file = tempDir.resolve("statement.xml");
+        assertTrue(dbService.exportStatementToFile(1000, "xml", file));
+
+        String xml = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        assertTrue(xml.contains("<Stmt>\n<Id>195</Id>"));
+        assertTrue(xml.contains("<Amt Ccy=\"CZK\">1500.00</Amt>"));
+        assertTrue(xml.contains("<Nm>Novák &amp; syn</Nm>"));
+        assertEquals(2, xml.split("<Ntry>", -1).length - 1);
+        assertTrue(xml.endsWith("</Document>\n"));
+    }
+
+    @Test
+    void testExportEndpoint(Vertx vertx, VertxTestContext testContext) {
+        Router router = new RestApi(vertx).createRouter();
+        vertx.createHttpServer().requestHandler(router).listen(8081, testContext.succeeding(server -> {
+            WebClient client = WebClient.create(vertx);
+            client.get(8081, "localhost", "/statements/1000/export?format=csv").send(testContext.succeeding(response -> {
+                testContext.verify(() -> {
+                    assertEquals(200, response.statusCode());
+                    assertEquals("attachment; filename=\"statement-1000.csv\"", response.getHeader("Content-Disposition"));
+                    assertEquals(3, response.bodyAsString().split("\r\n").length);
+                });
+                client.get(8081, "localhost", "/statements/999/export").send(testContext.succeeding(missing -> {
+                    testContext.verify(() -> {
+                        assertEquals(404, missing.statusCode());
+                        assertNull(missing.getHeader("Content-Disposition"));
+                        assertNull(missing.getHeader("Transfer-Encoding"));
+                    });
+                    testContext.completeNow();
+                }));
+            }));
+        }));
+    }
+
+    @Test
+    void testMissingStatement(@TempDir Path tempDir) throws SQLException, IOException {
+        Path file = tempDir.resolve("missing.csv");
+        assertFalse(dbService.exportStatementToFile(999, "csv", file));
+        assertFalse(Files.exists(file));
+    }
+}
@@ -0,0 +1,38 @@
+package com.mytest;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Třída TestSchema vytváří tabulky aplikace ve vestavěné databázi H2 pro testovací třídy.
+ * Tabulky odpovídají skriptům create_*.sql a unikátnímu klíči transakcí, sloupce však povolují hodnotu NULL,
+ * aby testy mohly vkládat jen data, která potřebují.
+ */
+final class TestSchema {
+
+    private TestSchema() {
+    }
+
+    /**
+     * Metoda pro vytvoření tabulek account, statement, transactionType a transaction.
+     * @param connection - připojení k databázi H2 v režimu MSSQLServer
+     * @throws SQLException - chyba při vytváření tabulek
+     */
+    static void create(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("CREATE TABLE [account] (accountId BIGINT IDENTITY(1000,1) PRIMARY KEY, name NVARCHAR(50), "
+                    + "number NVARCHAR(20), code NVARCHAR(4))");
+            statement.executeUpdate("CREATE TABLE [statement] (statementId BIGINT IDENTITY(1000,1) PRIMARY KEY, number NVARCHAR(20), "
+                    + "period NVARCHAR(20), description NVARCHAR(1000))");
+            statement.executeUpdate("CREATE TABLE [transactionType] (trxTypeId BIGINT IDENTITY(1000,1) PRIMARY KEY, type NVARCHAR(20), code INT)");
+            statement.executeUpdate("CREATE TABLE [transaction] (trxId BIGINT IDENTITY(1000,1) PRIMARY KEY, amount NUMERIC(19, 2), "
+                    + "currency NVARCHAR(3), id NVARCHAR(20), bankref NVARCHAR(20), transactionId NVARCHAR(20), bookingDate DATE, "
+                    + "postingDate DATE, creditDebitIndicator VARCHAR(4), ownAccountNumber NVARCHAR(20), counterPartyAccount BIGINT, "
+                    + "detail1 NVARCHAR(50), detail2 NVARCHAR(50), detail3 NVARCHAR(50), detail4 NVARCHAR(50), "
+                    + "productBankRef NVARCHAR(50), transactionType BIGINT, statement BIGINT, "
+                    + "constantSymbol VARCHAR(10), specificSymbol VARCHAR(10), variableSymbol VARCHAR(10), "
+                    + "CONSTRAINT UQ_transaction_transactionId_bankref UNIQUE (transactionId, bankref))");
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.mytest;
+
+import com.mytest.db.TransactionSearchIndex;
+import io.vertx.core.json.JsonObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Třída TransactionSearchIndexTest představuje testovací třídu pro testování třídy TransactionSearchIndex.
+ */
+public class TransactionSearchIndexTest {
+    private TransactionSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TransactionSearchIndex();
+        index.addAccount(1000, "Jan Novák");
+        index.addAccount(1001, "Nováková Marie");
+        index.addAccount(1002, "PPF banka");
+        index.addTransaction(1, "2002222222", 1000, "12", "34", "Posílám peníze");
+        index.addTransaction(2, "2002222222", 1001, "12", null, "Příspěvek na dovolenou");
+        index.addTransaction(3, "2003333333", 1002, "99", "34", "Splátka úvěru");
+        index.addTransaction(4, "2003333333", 1000, "12", null, "Peníze zpět");
+    }
+
+    @Test
+    void testExactSymbolSearch() {
+        assertArrayEquals(new long[]{4, 2, 1}, index.search(new JsonObject().put("variableSymbol", "12"), 10));
+        assertArrayEquals(new long[]{3, 1}, index.search(new JsonObject().put("specificSymbol", "34"), 10));
+        assertArrayEquals(new long[]{}, index.search(new JsonObject().put("variableSymbol", "1"), 10));
+    }
+
+    @Test
+    void testTextPrefixSearch() {
+        assertArrayEquals(new long[]{4, 1}, index.search(new JsonObject().put("q", "peni"), 10));
+        assertArrayEquals(new long[]{2}, index.search(new JsonObject().put("q", "PŘÍSP dovol"), 10));
+        assertArrayEquals(new long[]{4}, index.search(new JsonObject().put("q", "peníze").put("accountNumber", "2003333333"), 10));
+    }
+
+    @Test
+    void testCounterPartySearch() {
+        assertArrayEquals(new long[]{4, 2, 1}, index.search(new JsonObject().put("counterparty", "novak"), 10));
+        assertArrayEquals(new long[]{2}, index.search(new JsonObject().put("counterparty", "novakova"), 10));
+        assertArrayEquals(new long[]{4}, index.search(new JsonObject().put("counterparty", "novak"), 1));
+    }
+
+    @Test
+    void testLargeAndOutOfOrderIds() {
+        long base = 10_000_000_000L;
+        index.addTransaction(base + 7, "2004444444", 1000, "77", null, "Nájem");
+        index.addTransaction(base + 2, "2004444444", 1000, "77", null, "Nájem");
+        index.addTransaction(base + 5, "2004444444", 1000, "77", null, "Nájem");
+        index.finishBuilding(true);
+        index.addTransaction(base + 9, "2004444444", 1000, "77", null, "Nájem");
+        assertArrayEquals(new long[]{base + 9, base + 7, base + 5, base + 2}, index.search(new JsonObject().put("variableSymbol", "77"), 10));
+        assertArrayEquals(new long[]{base + 9, base + 7}, index.search(new JsonObject().put("q", "najem").put("accountNumber", "2004444444"), 2));
+        assertArrayEquals(new long[]{base + 9, base + 7, base + 5, base + 2, 4, 1},
+                index.search(new JsonObject().put("counterparty", "jan"), 10));
+        assertTrue(index.estimatedBytes() > 0);
+    }
+
+    @Test
+    void testRepeatedAddIsIgnored() {
+        index.addTransaction(2, "2002222222", 1001, "12", null, "Příspěvek na dovolenou");
+        assertArrayEquals(new long[]{4, 2, 1}, index.search(new JsonObject().put("variableSymbol", "12"), 10));
+    }
+
+    @Test
+    void testIntersectionMatchesFullScan() {
+        TransactionSearchIndex large = new TransactionSearchIndex();
+        String[] words = {"nakup", "najem", "platba", "plat", "vyplata"};
+        Random random = new Random(42);
+        List<Long> expected = new ArrayList<>();
+        for (long trxId = 1; trxId <= 5000; trxId++) {
+            String account = "acc" + random.nextInt(3);
+            String variableSymbol = String.valueOf(random.nextInt(10));
+            String first = words[random.nextInt(words.length)];
+            String second = words[random.nextInt(words.length)];
+            large.addTransaction(trxId, account, 1000, variableSymbol, null, first + " " + second);
+            if (account.equals("acc1") && variableSymbol.equals("7") && (first.startsWith("pla") || second.startsWith("pla"))) {
+                expected.add(0, trxId);
+            }
+        }
+        JsonObject criteria = new JsonObject().put("accountNumber", "acc1").put("variableSymbol", "7").put("q", "pla");
+        long[] found = large.search(criteria, 1000);
+        assertTrue(found.length > 3);
+        assertArrayEquals(expected.stream().mapToLong(Long::longValue).toArray(), found);
+        assertArrayEquals(Arrays.copyOf(found, 3), large.search(criteria, 3));
+    }
+
+    @Test
+    void testSearchableCriteria() {
+        assertTrue(TransactionSearchIndex.hasSearchableCriteria(new JsonObject().put("variableSymbol", "12")));
+        assertFalse(TransactionSearchIndex.hasSearchableCriteria(new JsonObject().put("accountNumber", "2002222222")));
+        assertFalse(TransactionSearchIndex.hasSearchableCriteria(new JsonObject().put("q", "a")));
+    }
+}